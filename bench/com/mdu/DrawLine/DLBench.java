@@ -0,0 +1,194 @@
+package com.mdu.DrawLine;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.regex.Pattern;
+
+/*
+ * Minimal headless micro benchmark harness. Every case is built from a fresh
+ * DLUtil seed, warmed up, then timed over several fixed length iterations.
+ * Results are ns per operation and can be written to / compared with a CSV
+ * baseline.
+ *
+ * java -Djava.awt.headless=true -cp bin:dist/Filters.jar com.mdu.DrawLine.DLBench
+ *      [-w warmups] [-i iterations] [-t millis] [-csv out.csv]
+ *      [-baseline in.csv] [regex]
+ */
+public class DLBench {
+  static final long SEED = 314159;
+
+  /*
+   * One operation. The returned value is folded in a sink so the JIT cannot
+   * drop the work.
+   */
+  interface Op {
+    long run() throws Exception;
+  }
+
+  static class Case {
+    final String name;
+    final Callable<Op> setup;
+
+    Case(String name, Callable<Op> setup) {
+      this.name = name;
+      this.setup = setup;
+    }
+  }
+
+  static class Result {
+    String name;
+    long ops;
+    double mean;
+    double error;
+    double min;
+  }
+
+  static volatile long sink;
+
+  final ArrayList<Case> cases = new ArrayList<Case>();
+  int warmups = 3;
+  int iterations = 5;
+  long millis = 500;
+
+  void add(String name, Callable<Op> setup) {
+    cases.add(new Case(name, setup));
+  }
+
+  Result measure(Case c) throws Exception {
+    DLUtil.Seed(SEED);
+    Op op = c.setup.call();
+    for (int i = 0; i < warmups; i++)
+      iteration(op);
+    Result r = new Result();
+    r.name = c.name;
+    r.min = Double.MAX_VALUE;
+    double[] t = new double[iterations];
+    for (int i = 0; i < iterations; i++) {
+      long[] v = iteration(op);
+      t[i] = (double) v[1] / v[0];
+      r.ops += v[0];
+      r.mean += t[i];
+      r.min = Math.min(r.min, t[i]);
+    }
+    r.mean /= iterations;
+    double var = 0;
+    for (double d : t)
+      var += (d - r.mean) * (d - r.mean);
+    r.error = iterations > 1 ? Math.sqrt(var / (iterations - 1)) : 0;
+    return r;
+  }
+
+  /*
+   * Runs op until the iteration time elapsed, returns { ops, nanos }.
+   */
+  long[] iteration(Op op) throws Exception {
+    long budget = millis * 1000000L;
+    long ops = 0;
+    long s = 0;
+    long start = System.nanoTime();
+    long now;
+    do {
+      s += op.run();
+      ops++;
+      now = System.nanoTime();
+    } while (now - start < budget);
+    sink += s;
+    return new long[] { ops, now - start };
+  }
+
+  static String format(double ns) {
+    if (ns < 1000)
+      return String.format(Locale.US, "%10.2f ns", ns);
+    if (ns < 1000000)
+      return String.format(Locale.US, "%10.2f us", ns / 1000);
+    return String.format(Locale.US, "%10.2f ms", ns / 1000000);
+  }
+
+  static HashMap<String, Double> Load(String file) throws Exception {
+    HashMap<String, Double> ret = new HashMap<String, Double>();
+    BufferedReader in = new BufferedReader(new FileReader(file));
+    try {
+      String l;
+      while ((l = in.readLine()) != null) {
+        String[] f = l.split(",");
+        if (f.length >= 3 && !f[0].equals("name"))
+          ret.put(f[0], Double.parseDouble(f[2]));
+      }
+    } finally {
+      in.close();
+    }
+    return ret;
+  }
+
+  public static void main(String[] a) throws Exception {
+    System.setProperty("java.awt.headless", "true");
+    DLBench b = new DLBench();
+    String csv = null;
+    String baseline = null;
+    Pattern filter = null;
+
+    for (int i = 0; i < a.length; i++) {
+      switch (a[i]) {
+      case "-w":
+        b.warmups = Integer.parseInt(a[++i]);
+        break;
+      case "-i":
+        b.iterations = Integer.parseInt(a[++i]);
+        break;
+      case "-t":
+        b.millis = Long.parseLong(a[++i]);
+        break;
+      case "-csv":
+        csv = a[++i];
+        break;
+      case "-baseline":
+        baseline = a[++i];
+        break;
+      default:
+        filter = Pattern.compile(a[i]);
+      }
+    }
+
+    DLMathBench.cases(b);
+    DLComponentBench.cases(b);
+    DLEscapeTimeBench.cases(b);
+    DLLifeBench.cases(b);
+    DLParticleBench.cases(b);
+    DLParticlesBench.cases(b);
+    DLFilterBench.cases(b);
+
+    HashMap<String, Double> base = baseline == null ? null : Load(baseline);
+    PrintWriter out = csv == null ? null : new PrintWriter(new FileWriter(csv));
+    if (out != null)
+      out.println("name,ops,ns_op,error,min");
+
+    for (Case c : b.cases) {
+      if (filter != null && !filter.matcher(c.name).find())
+        continue;
+      Result r;
+      try {
+        r = b.measure(c);
+      } catch (Throwable e) {
+        System.err.println(c.name + " " + e);
+        continue;
+      }
+      String s = String.format(Locale.US, "%-40s %s/op +- %s  %10d ops", r.name, format(r.mean), format(r.error).trim(), r.ops);
+      if (base != null && base.containsKey(r.name))
+        s += String.format(Locale.US, "  x%.2f", base.get(r.name) / r.mean);
+      System.out.println(s);
+      if (out != null) {
+        out.println(String.format(Locale.US, "%s,%d,%.3f,%.3f,%.3f", r.name, r.ops, r.mean, r.error, r.min));
+        out.flush();
+      }
+    }
+    if (out != null)
+      out.close();
+    System.exit(0);
+  }
+}
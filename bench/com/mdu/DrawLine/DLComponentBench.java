@@ -0,0 +1,102 @@
+package com.mdu.DrawLine;
+
+import java.awt.Graphics2D;
+
+/*
+ * One simulation step of the heavier DLImage components, built the way
+ * DLBatch builds them (DLMain params, no scheduling, no parent) at SIZE².
+ * DLMandelbrot has no incremental step, an operation is a full frame,
+ * computed or, for the .cached case, recolored from the tile cache.
+ */
+class DLComponentBench {
+  static final int SIZE = 256;
+
+  static DLImage Make(Class<?> cls, String spec) throws Exception {
+    DLComponent dlc = DLBatch.Make(cls, DLBatch.Params(cls, spec, SIZE, SIZE));
+    DLImage dli = (DLImage) dlc;
+    dli.threaded = false;
+    dli.parent = null;
+    dli.image = dli.image();
+    return dli;
+  }
+
+  static Graphics2D Graphics(DLImage dli) {
+    Graphics2D g = dli.image.createGraphics();
+    DLUtil.SetHints(g);
+    return g;
+  }
+
+  static void cases(DLBench b) {
+    b.add("step.DLMandelbrot", () -> {
+      DLMandelbrot m = (DLMandelbrot) Make(DLMandelbrot.class, null);
+      Graphics2D g = Graphics(m);
+      return () -> {
+        DLEscapeTime.cache.clear();
+        m.f(g, null);
+        return m.image.getRGB(SIZE / 2, SIZE / 2);
+      };
+    });
+    b.add("step.DLMandelbrot.cached", () -> {
+      DLMandelbrot m = (DLMandelbrot) Make(DLMandelbrot.class, null);
+      Graphics2D g = Graphics(m);
+      return () -> {
+        m.f(g, null);
+        return m.image.getRGB(SIZE / 2, SIZE / 2);
+      };
+    });
+    b.add("step.DLMandelbrot.serial", () -> {
+      DLMandelbrot m = (DLMandelbrot) Make(DLMandelbrot.class, "parallel=false");
+      Graphics2D g = Graphics(m);
+      return () -> {
+        m.f(g, null);
+        return m.image.getRGB(SIZE / 2, SIZE / 2);
+      };
+    });
+    b.add("step.DLLife", () -> {
+      DLLife l = (DLLife) Make(DLLife.class, null);
+      Graphics2D g = Graphics(l);
+      return () -> {
+        l.step(g, 0);
+        return l.frameCount++;
+      };
+    });
+    b.add("step.DLParticle", () -> {
+      DLParticle p = (DLParticle) Make(DLParticle.class, null);
+      Graphics2D g = Graphics(p);
+      return () -> {
+        p.step(g);
+        return p.frameCount++;
+      };
+    });
+    b.add("step.DLVoronoi", () -> {
+      DLVoronoi v = (DLVoronoi) Make(DLVoronoi.class, null);
+      Graphics2D g = Graphics(v);
+      v.init();
+      v.inited = true;
+      return () -> {
+        v.avance();
+        v.voronoi(g);
+        return v.frameCount++;
+      };
+    });
+    b.add("step.DLWater", () -> {
+      DLWater w = (DLWater) Make(DLWater.class, null);
+      w.init();
+      for (int i = 0; i < 16; i++)
+        w.disturb(DLUtil.RangeRandom(0, SIZE), DLUtil.RangeRandom(0, SIZE));
+      return () -> {
+        w.newframe();
+        return w.frameCount++;
+      };
+    });
+    b.add("step.DLMultiscaleTuringPatterns", () -> {
+      DLMultiscaleTuringPatterns t = (DLMultiscaleTuringPatterns) Make(DLMultiscaleTuringPatterns.class, null);
+      Graphics2D g = Graphics(t);
+      t.setup();
+      return () -> {
+        t.step(g);
+        return t.frameCount++;
+      };
+    });
+  }
+}
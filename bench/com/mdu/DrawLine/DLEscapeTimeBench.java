@@ -0,0 +1,45 @@
+package com.mdu.DrawLine;
+
+import java.awt.Graphics2D;
+import java.math.BigDecimal;
+
+/*
+ * Full uncached DLEscapeTime frames per escape time kernel option. The
+ * Mandelbrot set on the default view, on the inside of the period 3
+ * minibrot and deep (perturbed) inside it; a Julia set and the power 3
+ * multibrot on their default views. plain has every option off.
+ */
+class DLEscapeTimeBench {
+  static final String[][] KERNELS = { { "plain", "smooth=false,skip=false,trace=false" },
+      { "skip", "smooth=false,skip=true,trace=false" }, { "trace", "smooth=false,skip=false,trace=true" },
+      { "all", "smooth=true,skip=true,trace=true" } };
+  static final BigDecimal MINIBROT = new BigDecimal("-1.7548776662466927");
+
+  static void view(DLEscapeTime m, double s) {
+    m.view(new DLEscapeTime.View(new DLEscapeTime.Lattice(m.latticeCount++, 0, MINIBROT, BigDecimal.ZERO, s, s), 0, 0));
+  }
+
+  static void add(DLBench b, String name, Class<?> cls, String spec, double scale) {
+    for (String[] kernel : KERNELS)
+      b.add(name + "." + kernel[0], () -> {
+        String s = "progressive=false," + kernel[1] + (spec == null ? "" : "," + spec);
+        DLEscapeTime m = (DLEscapeTime) DLComponentBench.Make(cls, s);
+        Graphics2D g = DLComponentBench.Graphics(m);
+        if (scale != 0)
+          view(m, scale);
+        return () -> {
+          DLEscapeTime.cache.clear();
+          m.f(g, null);
+          return m.image.getRGB(DLComponentBench.SIZE / 2, DLComponentBench.SIZE / 2);
+        };
+      });
+  }
+
+  static void cases(DLBench b) {
+    add(b, "mandelbrot.default", DLMandelbrot.class, null, 0);
+    add(b, "mandelbrot.interior", DLMandelbrot.class, null, 1e-4);
+    add(b, "mandelbrot.deep", DLMandelbrot.class, null, 1e-14);
+    add(b, "julia.default", DLJulia.class, null, 0);
+    add(b, "multibrot3.default", DLMandelbrot.class, "power=3", 0);
+  }
+}
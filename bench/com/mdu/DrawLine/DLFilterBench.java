@@ -0,0 +1,48 @@
+package com.mdu.DrawLine;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+
+import com.jhlabs.image.BoxBlurFilter;
+import com.jhlabs.image.ContrastFilter;
+import com.jhlabs.image.EdgeFilter;
+import com.jhlabs.image.EmbossFilter;
+import com.jhlabs.image.GaussianFilter;
+import com.jhlabs.image.InvertFilter;
+import com.jhlabs.image.KaleidoscopeFilter;
+import com.jhlabs.image.TwirlFilter;
+
+/*
+ * A representative set of com.jhlabs.image filters, point, convolution and
+ * transform ops, on seeded noise at several sizes. The destination image is
+ * allocated once per case.
+ */
+class DLFilterBench {
+  static final int[] SIZES = { 256, 1024, 4096 };
+
+  static BufferedImageOp[] Filters(int size) {
+    TwirlFilter twirl = new TwirlFilter();
+    twirl.setAngle(DLUtil.PI);
+    twirl.setRadius(size / 2);
+    KaleidoscopeFilter kaleidoscope = new KaleidoscopeFilter();
+    kaleidoscope.setSides(6);
+    ContrastFilter contrast = new ContrastFilter();
+    contrast.setContrast(1.5f);
+    return new BufferedImageOp[] { new InvertFilter(), contrast, new GaussianFilter(5),
+        new BoxBlurFilter(5, 5, 3), new EdgeFilter(), new EmbossFilter(), twirl, kaleidoscope };
+  }
+
+  static void cases(DLBench b) {
+    for (int size : SIZES) {
+      BufferedImageOp[] filters = Filters(size);
+      for (int i = 0; i < filters.length; i++) {
+        final BufferedImageOp f = filters[i];
+        b.add("filter." + f.getClass().getSimpleName() + "." + size, () -> {
+          BufferedImage src = DLMathBench.Noise(size, size);
+          BufferedImage dst = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+          return () -> f.filter(src, dst).getRGB(size / 2, size / 2);
+        });
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.mdu.DrawLine;
+
+import java.awt.Graphics2D;
+
+/*
+ * One Life generation on random toric boards, per engine and size, without
+ * painting. The sparse and hash cases are bounded by the random viewport
+ * instead. The .gun cases step a glider gun on a 4096 board, mostly empty.
+ *
+ * The .switchEngines cases compute generation 1024 of the infinite growth
+ * pattern from scratch, with 1024 steps of a bounded dense board large
+ * enough to hold it or a single Hashlife step of 2^10.
+ *
+ * The step.DLLife cases step and paint a DLLife of SIZE², with 4 pixel
+ * sprites or one pixel raster cells.
+ */
+class DLLifeBench {
+  static DLLifeEngine Engine(String name, int size) {
+    switch (name) {
+    case "cells":
+      return new DLLifeCells(size, size, true);
+    case "sparse":
+      return new DLLifeSparse(size, size);
+    case "hash":
+      return new DLHashLife(size, size);
+    }
+    return new DLLifeBits(size, size, true);
+  }
+
+  static void add(DLBench b, String name, int size) {
+    b.add("life." + name + "." + size, () -> {
+      DLLifeEngine l = Engine(name, size);
+      l.random(0.5f);
+      return () -> {
+        l.step();
+        return l.get(size / 2, size / 2) ? 1 : 0;
+      };
+    });
+  }
+
+  static void step(DLBench b, String name, int cells) {
+    b.add("step.DLLife." + name, () -> {
+      DLLife l = (DLLife) DLComponentBench.Make(DLLife.class, "lwidth=" + cells + ",lheight=" + cells);
+      Graphics2D g = DLComponentBench.Graphics(l);
+      return () -> {
+        l.step(g, 0);
+        return l.frameCount++;
+      };
+    });
+  }
+
+  static void cases(DLBench b) {
+    step(b, "sprites", DLComponentBench.SIZE / 4);
+    step(b, "raster", DLComponentBench.SIZE);
+    add(b, "cells", 256);
+    add(b, "bits", 256);
+    add(b, "sparse", 256);
+    add(b, "hash", 256);
+    add(b, "cells", 1024);
+    add(b, "bits", 1024);
+    add(b, "sparse", 1024);
+    add(b, "hash", 1024);
+    add(b, "bits", 10000);
+    DLLifeRLE gun = DLLifeRLE.Parse(DLLife.GUN);
+    for (String name : new String[] { "bits", "sparse" })
+      b.add("life." + name + ".gun", () -> {
+        DLLifeEngine l = Engine(name, 4096);
+        gun.center(l);
+        return () -> {
+          l.step();
+          return l.get(2048, 2048) ? 1 : 0;
+        };
+      });
+    DLLifeRLE p = DLLifeRLE.Parse(DLLife.SWITCH_ENGINES);
+    b.add("life.bits.switchEngines", () -> {
+      return () -> {
+        DLLifeBits l = new DLLifeBits(1024, 1024, false);
+        p.center(l);
+        for (int i = 0; i < 1024; i++)
+          l.step();
+        return l.get(512, 512) ? 1 : 0;
+      };
+    });
+    b.add("life.hash.switchEngines", () -> {
+      return () -> {
+        DLHashLife l = new DLHashLife(1024, 1024);
+        p.center(l);
+        l.jump = 10;
+        l.step();
+        return l.population();
+      };
+    });
+  }
+}
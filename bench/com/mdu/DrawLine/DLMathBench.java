@@ -0,0 +1,121 @@
+package com.mdu.DrawLine;
+
+import java.awt.image.BufferedImage;
+
+/*
+ * DLUtil math helpers, DLColorModel lookups and DLUtil.Merge. Scalar cases
+ * run over a fixed table of N inputs per operation.
+ */
+class DLMathBench {
+  static final int N = 1024;
+
+  static float[] Inputs(float min, float max) {
+    float[] v = new float[N];
+    for (int i = 0; i < N; i++)
+      v[i] = DLUtil.RangeRandom(min, max);
+    return v;
+  }
+
+  static BufferedImage Noise(int w, int h) {
+    BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+    int[] p = new int[w * h];
+    for (int i = 0; i < p.length; i++)
+      p[i] = DLUtil.random.nextInt() | 0xff000000;
+    img.setRGB(0, 0, w, h, p, 0, w);
+    return img;
+  }
+
+  static void cases(DLBench b) {
+    b.add("math.FastSqrt", () -> {
+      float[] v = Inputs(0, 10000);
+      return () -> {
+        float s = 0;
+        for (int i = 0; i < N; i++)
+          s += DLUtil.FastSqrt(v[i]);
+        return Float.floatToRawIntBits(s);
+      };
+    });
+    b.add("math.SlowSqrt", () -> {
+      float[] v = Inputs(0, 10000);
+      return () -> {
+        float s = 0;
+        for (int i = 0; i < N; i++)
+          s += DLUtil.SlowSqrt(v[i]);
+        return Float.floatToRawIntBits(s);
+      };
+    });
+    b.add("math.Sin", () -> {
+      float[] v = Inputs(-10, 10);
+      return () -> {
+        float s = 0;
+        for (int i = 0; i < N; i++)
+          s += DLUtil.Sin(v[i]);
+        return Float.floatToRawIntBits(s);
+      };
+    });
+    b.add("math.Cos", () -> {
+      float[] v = Inputs(-10, 10);
+      return () -> {
+        float s = 0;
+        for (int i = 0; i < N; i++)
+          s += DLUtil.Cos(v[i]);
+        return Float.floatToRawIntBits(s);
+      };
+    });
+    b.add("math.Atan2", () -> {
+      float[] y = Inputs(-1, 1);
+      float[] x = Inputs(-1, 1);
+      return () -> {
+        float s = 0;
+        for (int i = 0; i < N; i++)
+          s += DLUtil.Atan2(y[i], x[i]);
+        return Float.floatToRawIntBits(s);
+      };
+    });
+    b.add("math.fastAtan2", () -> {
+      float[] y = Inputs(-1, 1);
+      float[] x = Inputs(-1, 1);
+      return () -> {
+        float s = 0;
+        for (int i = 0; i < N; i++)
+          s += DLUtil.fastAtan2(y[i], x[i]);
+        return Float.floatToRawIntBits(s);
+      };
+    });
+    b.add("math.Normalize", () -> {
+      float[] v = Inputs(0, 500);
+      return () -> {
+        float s = 0;
+        for (int i = 0; i < N; i++)
+          s += DLUtil.Normalize(-2f, 2f, 0f, 500f, v[i]);
+        return Float.floatToRawIntBits(s);
+      };
+    });
+    b.add("math.RangeRandom", () -> {
+      return () -> {
+        float s = 0;
+        for (int i = 0; i < N; i++)
+          s += DLUtil.RangeRandom(-1f, 1f);
+        return Float.floatToRawIntBits(s);
+      };
+    });
+    b.add("color.getColor", () -> {
+      float[] v = Inputs(0, 1);
+      DLColorModel m = DLUtil.ColorModel1;
+      return () -> {
+        long s = 0;
+        for (int i = 0; i < N; i++)
+          s += m.getColor(v[i]);
+        return s;
+      };
+    });
+    for (int size : new int[] { 256, 1024 }) {
+      b.add("util.Merge." + size, () -> {
+        BufferedImage i1 = Noise(size, size);
+        BufferedImage i2 = Noise(size, size);
+        BufferedImage r = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        return () -> DLUtil.Merge(i1, i2, 0.5f, r).getRGB(0, 0);
+      });
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package com.mdu.DrawLine;
+
+import java.awt.Graphics2D;
+
+/*
+ * One DLParticle step, forces, collisions, links and moves but no painting,
+ * per solver and number of particles, with the default link factor, which
+ * links any pair on screen, and a short one that leaves the neighbours to the
+ * grid.
+ */
+class DLParticleBench {
+  static void add(DLBench b, String solver, int n, int link) {
+    String name = "particle." + solver + "." + n + (link == 0 ? "" : ".link" + link);
+    b.add(name, () -> {
+      String spec = "solver=" + solver + (link == 0 ? "" : ",linkFactor=" + link);
+      DLParticle p = (DLParticle) DLComponentBench.Make(DLParticle.class, spec);
+      p.setNumParticles(n);
+      return () -> {
+        p.step(null, null);
+        return p.frameCount++;
+      };
+    });
+  }
+
+  /*
+   * The field alone, sampled every pixelSize pixels at SIZE².
+   */
+  static void field(DLBench b, String solver, int n) {
+    b.add("particle.field." + solver + "." + n, () -> {
+      DLParticle p = (DLParticle) DLComponentBench.Make(DLParticle.class, "fieldSolver=" + solver);
+      p.setNumParticles(n);
+      Graphics2D g = DLComponentBench.Graphics(p);
+      return () -> {
+        p.field(g, null);
+        return p.frameCount++;
+      };
+    });
+  }
+
+  static void cases(DLBench b) {
+    for (int n : new int[] { 100, 1000, 4000 }) {
+      add(b, DLParticle.EXACT, n, 0);
+      add(b, DLParticle.BARNES_HUT, n, 0);
+      add(b, DLParticle.BARNES_HUT, n, 50);
+    }
+    for (int n : new int[] { 20, 200 }) {
+      field(b, DLParticle.EXACT, n);
+      field(b, DLParticle.FFT, n);
+    }
+  }
+}
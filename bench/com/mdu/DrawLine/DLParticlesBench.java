@@ -0,0 +1,40 @@
+package com.mdu.DrawLine;
+
+import java.awt.Graphics2D;
+
+/*
+ * DLParticles at n particles, topped up to n before each operation as ages
+ * run out: .step moves them, .paint plots them as single pixels at SIZE²,
+ * .trails steps them and paints their segment trails, a point per step.
+ */
+class DLParticlesBench {
+  static void add(DLBench b, String op, int n) {
+    b.add("particles." + op + "." + n, () -> {
+      DLParticles p = (DLParticles) DLComponentBench.Make(DLParticles.class, "mode=toric");
+      Graphics2D g = DLComponentBench.Graphics(p);
+      p.setnumParticles(n);
+      if (op.equals("trails"))
+        p.trajectoryStep = 0;
+      return () -> {
+        p.setnumParticles(n);
+        if (op.equals("step"))
+          p.step(g, null);
+        else if (op.equals("trails")) {
+          p.step(g, null);
+          p.paintTrajectories(g);
+        } else
+          p.paintParticles(g);
+        return p.frameCount++;
+      };
+    });
+  }
+
+  static void cases(DLBench b) {
+    for (int n : new int[] { 10000, 100000, 1000000 }) {
+      add(b, "step", n);
+      add(b, "paint", n);
+    }
+    for (int n : new int[] { 1000, 10000, 100000 })
+      add(b, "trails", n);
+  }
+}
@@ -0,0 +1,192 @@
+package com.mdu.DrawLine;
+
+import java.util.Arrays;
+
+/*
+ * Barnes-Hut quadtree over flat coordinate and mass arrays, rebuilt for each
+ * step. Every node is a square with the mass and centroid of the points it
+ * holds; its four child slots are -1 when empty, a node index when >= 0, or
+ * a point -(j + 2), the head of a list through next[] that only grows past
+ * MAX_DEPTH, for points too close to be split.
+ *
+ * walk() sums the pull of the cells seen from x, y under the opening angle
+ * theta (size / distance) as mass * dx * K(d2), with K = 1 / d2, or
+ * 1 / d2² when square. Cells that come closer than range are always opened,
+ * so every point within range is handed to Pair exactly, as are the points
+ * of the opened cells.
+ */
+class DLBarnesHut {
+  static final int MAX_DEPTH = 32;
+
+  interface Pair {
+    void pair(int i, int j);
+  }
+
+  float[] x;
+  float[] y;
+  float[] m;
+  int n;
+  int[] next = new int[0];
+
+  int nodes;
+  int[] child = new int[0];
+  float[] nx = new float[0];
+  float[] ny = new float[0];
+  float[] size = new float[0];
+  float[] mass = new float[0];
+  float[] cx = new float[0];
+  float[] cy = new float[0];
+  final int[] stack = new int[4 * (MAX_DEPTH + 2)];
+
+  void build(float[] x, float[] y, float[] m, int n) {
+    this.x = x;
+    this.y = y;
+    this.m = m;
+    this.n = n;
+    if (next.length < n)
+      next = new int[n];
+    nodes = 0;
+    float x0 = Float.MAX_VALUE, y0 = Float.MAX_VALUE, x1 = -Float.MAX_VALUE, y1 = -Float.MAX_VALUE;
+    for (int j = 0; j < n; j++) {
+      x0 = Math.min(x0, x[j]);
+      y0 = Math.min(y0, y[j]);
+      x1 = Math.max(x1, x[j]);
+      y1 = Math.max(y1, y[j]);
+    }
+    if (n == 0)
+      return;
+    float s = Math.max(x1 - x0, y1 - y0);
+    s = Math.max(s * 1.0001f, 1e-3f);
+    node(x0, y0, s);
+    for (int j = 0; j < n; j++)
+      insert(j);
+    summarize(0);
+  }
+
+  int node(float x0, float y0, float s) {
+    if (nodes == size.length) {
+      int c = Math.max(64, 2 * nodes);
+      child = Arrays.copyOf(child, 4 * c);
+      nx = Arrays.copyOf(nx, c);
+      ny = Arrays.copyOf(ny, c);
+      size = Arrays.copyOf(size, c);
+      mass = Arrays.copyOf(mass, c);
+      cx = Arrays.copyOf(cx, c);
+      cy = Arrays.copyOf(cy, c);
+    }
+    int k = nodes++;
+    nx[k] = x0;
+    ny[k] = y0;
+    size[k] = s;
+    for (int q = 0; q < 4; q++)
+      child[4 * k + q] = -1;
+    return k;
+  }
+
+  int quadrant(int k, float px, float py) {
+    float h = size[k] / 2;
+    return (px >= nx[k] + h ? 1 : 0) | (py >= ny[k] + h ? 2 : 0);
+  }
+
+  void insert(int j) {
+    int k = 0;
+    for (int depth = 0;; depth++) {
+      int q = quadrant(k, x[j], y[j]);
+      int c = child[4 * k + q];
+      if (c == -1) {
+        child[4 * k + q] = -(j + 2);
+        next[j] = -1;
+        return;
+      }
+      if (c >= 0) {
+        k = c;
+        continue;
+      }
+      if (depth >= MAX_DEPTH) {
+        next[j] = -(c + 2);
+        child[4 * k + q] = -(j + 2);
+        return;
+      }
+      float h = size[k] / 2;
+      int nk = node(nx[k] + ((q & 1) != 0 ? h : 0), ny[k] + ((q & 2) != 0 ? h : 0), h);
+      child[4 * k + q] = nk;
+      int o = -(c + 2);
+      child[4 * nk + quadrant(nk, x[o], y[o])] = c;
+      k = nk;
+    }
+  }
+
+  void summarize(int k) {
+    float tm = 0, tx = 0, ty = 0;
+    for (int q = 0; q < 4; q++) {
+      int c = child[4 * k + q];
+      if (c == -1)
+        continue;
+      if (c >= 0) {
+        summarize(c);
+        tm += mass[c];
+        tx += mass[c] * cx[c];
+        ty += mass[c] * cy[c];
+      } else
+        for (int j = -(c + 2); j != -1; j = next[j]) {
+          tm += m[j];
+          tx += m[j] * x[j];
+          ty += m[j] * y[j];
+        }
+    }
+    mass[k] = tm;
+    cx[k] = tm == 0 ? nx[k] + size[k] / 2 : tx / tm;
+    cy[k] = tm == 0 ? ny[k] + size[k] / 2 : ty / tm;
+  }
+
+  /*
+   * Pull on point i at px, py in acc[0], acc[1].
+   */
+  void walk(int i, float px, float py, float theta, float range, boolean square, Pair exact, float[] acc) {
+    float ax = 0, ay = 0;
+    if (nodes == 0) {
+      acc[0] = acc[1] = 0;
+      return;
+    }
+    float t2 = theta * theta;
+    int[] st = stack;
+    int sp = 0;
+    st[sp++] = 0;
+    while (sp > 0) {
+      int k = st[--sp];
+      for (int q = 0; q < 4; q++) {
+        int c = child[4 * k + q];
+        if (c == -1)
+          continue;
+        if (c < 0) {
+          for (int j = -(c + 2); j != -1; j = next[j])
+            if (j != i)
+              exact.pair(i, j);
+          continue;
+        }
+        float dx = cx[c] - px;
+        float dy = cy[c] - py;
+        float d2 = dx * dx + dy * dy;
+        float s = size[c];
+        if (s * s < t2 * d2 && !near(c, px, py, range)) {
+          float f = square ? mass[c] / (d2 * d2) : mass[c] / d2;
+          ax += f * dx;
+          ay += f * dy;
+        } else
+          st[sp++] = c;
+      }
+    }
+    acc[0] = ax;
+    acc[1] = ay;
+  }
+
+  /*
+   * True when the square of node k comes within range of px, py.
+   */
+  boolean near(int k, float px, float py, float range) {
+    float s = size[k];
+    float dx = Math.max(0, Math.max(nx[k] - px, px - nx[k] - s));
+    float dy = Math.max(0, Math.max(ny[k] - py, py - ny[k] - s));
+    return dx * dx + dy * dy < range * range;
+  }
+}
@@ -0,0 +1,221 @@
+package com.mdu.DrawLine;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ * Headless batch renderer. Instantiates any DLComponent by reflection, applies
+ * the same params as DLMain and runs its frame loop on the calling thread
+ * without Swing, writing every frame as a numbered PNG (or one still).
+ *
+ * java -Djava.awt.headless=true com.mdu.DrawLine.DLBatch [-frames n] [-out dir]
+ *      [-size wxh] [-threads n] DLPlasma[:name=value,...] DLLife ...
+ */
+public class DLBatch {
+
+  @SuppressWarnings("serial")
+  static class Capture extends DLContainer {
+    final DLImage image;
+    final DLThread thread;
+    final int frames;
+    final File out;
+    final String name;
+    final ArrayList<File> files = new ArrayList<File>();
+    int frame = 0;
+
+    Capture(DLImage image, DLThread thread, int frames, File out, String name) {
+      this.image = image;
+      this.thread = thread;
+      this.frames = frames;
+      this.out = out;
+      this.name = name;
+    }
+
+    void paint(DLComponent c) {
+      if (c == image)
+        capture();
+    }
+
+    void paint(Rectangle r) {
+      capture();
+    }
+
+    void paint(DLComponent c, Rectangle r) {
+      capture();
+    }
+
+    void capture() {
+      if (thread.isStopped())
+        return;
+      frame++;
+      File f = frames == 1 ? new File(out, name + ".png") : new File(out, String.format("%s-%05d.png", name, frame));
+      DLUtil.Save(image.display(), f);
+      files.add(f);
+      if (frame >= frames)
+        thread.setStopped(true);
+    }
+
+    @Override
+    public void repaint(long t, int x, int y, int w, int h) {
+    }
+  }
+
+  static DLComponent Make(Class<?> cls, Object[][] params) throws Exception {
+    DLMain.params = params;
+    DLComponent dlc;
+    try {
+      Constructor<?> ctr = cls.getConstructor();
+      dlc = (DLComponent) ctr.newInstance();
+    } catch (NoSuchMethodException e) {
+      Constructor<?> ctr = cls.getConstructor(float.class, float.class);
+      dlc = (DLComponent) ctr.newInstance((float) DLMain.get("x"), (float) DLMain.get("y"));
+      dlc.randomize();
+    }
+    DLMain.init(dlc);
+    return dlc;
+  }
+
+  static List<File> Render(Class<?> cls, Object[][] params, int frames, File out, String name) throws Exception {
+    out.mkdirs();
+    DLComponent dlc;
+    synchronized (DLMain.class) {
+      dlc = Make(cls, params);
+    }
+
+    if (!(dlc instanceof DLImage)) {
+      Rectangle r = dlc.getBounds();
+      BufferedImage img = new BufferedImage(Math.max(r.width, 1), Math.max(r.height, 1), BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g = img.createGraphics();
+      DLUtil.SetHints(g);
+      g.translate(-r.x, -r.y);
+      dlc.paint(g);
+      g.dispose();
+      File f = new File(out, name + ".png");
+      DLUtil.Save(img, f);
+      ArrayList<File> ret = new ArrayList<File>();
+      ret.add(f);
+      return ret;
+    }
+
+    DLImage dli = (DLImage) dlc;
+    dli.threaded = false;
+    DLMain.setAttribute(dli, "threadSleep", 0);
+    dli.image = dli.image();
+    Graphics2D g = dli.image.createGraphics();
+    DLUtil.SetHints(g);
+
+    DLThread t = new DLThread();
+    Capture c = new Capture(dli, t, frames, out, name);
+    dli.parent = c;
+    dli.f(g, t);
+    if (c.frame < frames)
+      c.capture();
+    dli.parent = null;
+    return c.files;
+  }
+
+  static Object Parse(Class<?> type, String v) {
+    if (type == int.class || type == Integer.class)
+      return Integer.parseInt(v);
+    if (type == float.class || type == Float.class)
+      return Float.parseFloat(v);
+    if (type == double.class || type == Double.class)
+      return Double.parseDouble(v);
+    if (type == long.class || type == Long.class)
+      return Long.parseLong(v);
+    if (type == boolean.class || type == Boolean.class)
+      return Boolean.parseBoolean(v);
+    return v;
+  }
+
+  static Class<?> FindClass(String s) throws ClassNotFoundException {
+    if (s.indexOf('.') < 0)
+      s = DLBatch.class.getPackage().getName() + "." + s;
+    return Class.forName(s);
+  }
+
+  static Object[][] Params(Class<?> cls, String spec, int w, int h) {
+    ArrayList<Object[]> p = new ArrayList<Object[]>();
+    p.add(new Object[] { "iwidth", w });
+    p.add(new Object[] { "iheight", h });
+    p.add(new Object[] { "x", w / 2 });
+    p.add(new Object[] { "y", h / 2 });
+    if (spec != null)
+      for (String kv : spec.split(",")) {
+        int i = kv.indexOf('=');
+        if (i <= 0)
+          continue;
+        String k = kv.substring(0, i);
+        Field f = DLMain.getField(cls, k);
+        if (f == null) {
+          System.err.println("No field " + k + " in " + cls.getSimpleName());
+          continue;
+        }
+        p.add(new Object[] { k, Parse(f.getType(), kv.substring(i + 1)) });
+      }
+    return p.toArray(new Object[p.size()][]);
+  }
+
+  public static void main(String[] a) throws Exception {
+    System.setProperty("java.awt.headless", "true");
+    int frames = 1;
+    int w = 500;
+    int h = 500;
+    int threads = Runtime.getRuntime().availableProcessors();
+    File out = new File(".");
+    ArrayList<String> jobs = new ArrayList<String>();
+
+    for (int i = 0; i < a.length; i++) {
+      switch (a[i]) {
+      case "-frames":
+        frames = Integer.parseInt(a[++i]);
+        break;
+      case "-out":
+        out = new File(a[++i]);
+        break;
+      case "-size":
+        String[] s = a[++i].split("x");
+        w = Integer.parseInt(s[0]);
+        h = Integer.parseInt(s[1]);
+        break;
+      case "-threads":
+        threads = Integer.parseInt(a[++i]);
+        break;
+      default:
+        jobs.add(a[i]);
+      }
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+    ArrayList<Future<List<File>>> results = new ArrayList<Future<List<File>>>();
+    for (int j = 0; j < jobs.size(); j++) {
+      String job = jobs.get(j);
+      int i = job.indexOf(':');
+      final Class<?> cls = FindClass(i < 0 ? job : job.substring(0, i));
+      final Object[][] params = Params(cls, i < 0 ? null : job.substring(i + 1), w, h);
+      final String name = cls.getSimpleName() + "-" + j;
+      final int n = frames;
+      final File o = out;
+      results.add(pool.submit(() -> Render(cls, params, n, o, name)));
+    }
+    for (Future<List<File>> f : results) {
+      try {
+        for (File file : f.get())
+          System.out.println(file);
+      } catch (Exception e) {
+        DLError.report(e);
+      }
+    }
+    pool.shutdown();
+    System.exit(0);
+  }
+}
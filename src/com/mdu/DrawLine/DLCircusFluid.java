@@ -32,11 +32,15 @@ public class DLCircusFluid extends DLImage {
     return cellSize;
   }
 
-  public void setCellSize(int cs) {
+  public synchronized void setCellSize(int cs) {
     cellSize = cs;
     setup();
   }
 
+  String quality() {
+    return "CellSize";
+  }
+
   public int[] rangeCellSize() {
     return new int[] { 1, 10 };
   }
@@ -112,7 +116,11 @@ public class DLCircusFluid extends DLImage {
         break;
 
       // clearImage();
-      step(g);
+      long start = System.nanoTime();
+      synchronized (this) {
+        step(g);
+      }
+      metrics.step.record(System.nanoTime() - start);
 
       if (parent != null)
         parent.paint(this);
@@ -114,6 +114,16 @@ public class DLColorModel {
     return ret;
   }
 
+  /*
+   * Opaque colors of n values evenly spread from min to max.
+   */
+  public int[] lut(float min, float max, int n) {
+    int[] lut = new int[n];
+    for (int i = 0; i < n; i++)
+      lut[i] = 0xff000000 | getColor(min + (max - min) * i / (n - 1));
+    return lut;
+  }
+
   private int getIntervalIndex(float value) {
     final int count = _limits.length;
     if (value >= _limits[0])
@@ -26,6 +26,7 @@ public abstract class DLComponent implements DLRandom, DLShadow, Movable {
   boolean selected = false;
   private Movable movableProxy;
   DLPropertySheet sheet;
+  DLMetrics metrics = new DLMetrics(this);
 
   float x = 0;
   float y = 0;
@@ -147,6 +148,10 @@ public abstract class DLComponent implements DLRandom, DLShadow, Movable {
   void dump() {
   }
 
+  boolean isAnimated() {
+    return false;
+  }
+
   float getRandomAngle() {
     return RangeRandom(0f, (float) Math.PI * 2);
   }
@@ -219,6 +224,7 @@ public abstract class DLComponent implements DLRandom, DLShadow, Movable {
   Rectangle redisplay(Rectangle o) {
     if (parent != null) {
       final Rectangle r = getBounds();
+      parent.reindex(this, r);
       if (o != null) {
         final Rectangle d = new Rectangle();
         Rectangle2D.union(r, o, d);
@@ -42,6 +42,10 @@ public class DLComponentList extends ArrayList<DLComponent> {
     addAll(Arrays.asList(compArray));
   }
 
+  int version() {
+    return modCount;
+  }
+
   DLComponentList copy() {
     return new DLComponentList(this);
   }
@@ -3,6 +3,7 @@ package com.mdu.DrawLine;
 import java.awt.Graphics;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
 import java.lang.reflect.Proxy;
 import java.util.Iterator;
 
@@ -11,13 +12,14 @@ import javax.swing.JPanel;
 @SuppressWarnings("serial")
 class DLContainer extends JPanel { // Container {
   DLComponentList components = new DLComponentList();
+  DLSpatialIndex index = new DLSpatialIndex(components);
   PaintControl paintControl = new PaintControl(this);
   DLComponentList selection = new DLComponentList();
   DLPropertySheet ps;
 
   DLComponentList hitTest(Point p) {
     DLComponentList hit = null;
-    final Iterator<DLComponent> i = components.iterator();
+    final Iterator<DLComponent> i = index.query(p).iterator();
     while (i.hasNext()) {
       final DLComponent dlc = i.next();
       if (dlc.hitTest(p)) {
@@ -63,7 +65,11 @@ class DLContainer extends JPanel { // Container {
     o.setMovableProxy(proxy);
     components.add(o);
     o.parent = this;
+    o.metrics.register();
+    if (o instanceof DLImage)
+      DLQuality.quality.watch((DLImage) o);
     final Rectangle r = o.getBounds();
+    index.add(o, r);
     final Graphics g = getGraphics();
     DLUtil.SetHints(g);
     paintControl.paint(r, g);
@@ -75,10 +81,41 @@ class DLContainer extends JPanel { // Container {
   }
 
   void clear() {
+    for (DLComponent c : components.copy()) {
+      c.metrics.unregister();
+      if (c instanceof DLImage)
+        DLQuality.quality.unwatch((DLImage) c);
+    }
     components.clear();
+    index.clear();
+  }
+
+  DLComponentList query(Rectangle r) {
+    return index.query(r);
+  }
+
+  void reindex(DLComponent c, Rectangle r) {
+    index.update(c, r);
+  }
+
+  Rectangle move(DLComponent c, float dx, float dy) {
+    Rectangle r1 = index.getBounds(c);
+    if (r1 == null)
+      r1 = c.getBounds();
+
+    if (c.getMovableProxy() != null)
+      c.getMovableProxy().move(dx, dy);
+    else
+      c.move(dx, dy);
+    final Rectangle r2 = c.getBounds();
+    index.update(c, r2);
+    final Rectangle r = new Rectangle();
+    Rectangle2D.union(r1, r2, r);
+    return r;
   }
 
   void paint(DLComponent c) {
+    c.metrics.frame();
     final Graphics g = getGraphics();
     paintControl.paint(c, g);
   }
@@ -88,6 +125,18 @@ class DLContainer extends JPanel { // Container {
     paintControl.paint(r, g);
   }
 
+  void paint(DLComponent c, Rectangle r) {
+    final Graphics g = getGraphics();
+    paintControl.paint(c, r, g);
+  }
+
+  @Override
+  protected void paintComponent(Graphics g) {
+    super.paintComponent(g);
+    if (paintControl != null)
+      paintControl.repaintManager.blit(g);
+  }
+
   @Override
   public void repaint(long t, int x, int y, int w, int h) {
     final Graphics g = getGraphics();
@@ -100,6 +149,10 @@ class DLContainer extends JPanel { // Container {
       selection.remove(o);
     final Rectangle r = o.getBounds();
     components.remove(o);
+    index.remove(o);
+    o.metrics.unregister();
+    if (o instanceof DLImage)
+      DLQuality.quality.unwatch((DLImage) o);
     o.parent = null;
     final Graphics g = getGraphics();
     paintControl.paint(r, g);
@@ -12,8 +12,6 @@ import java.awt.geom.Ellipse2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -84,10 +82,9 @@ public class DLDelaunay extends DLPointImage {
   public void f(Graphics2D g, DLThread t) {
     init();
 
-    long start = System.currentTimeMillis();
-    long dt = 0;
+    long start;
     while (frameCount++ > 0) {
-      start = System.currentTimeMillis();
+      start = System.nanoTime();
       if (t != null && t.isStopped())
         break;
       try {
@@ -108,7 +105,7 @@ public class DLDelaunay extends DLPointImage {
         if (paintSites)
           paintSites(g);
         if (paintFPS)
-          paintFPS(g, dt);
+          paintFPS(g);
         if (paintFrame)
           paintFrame(g);
       } catch (Exception e) {
@@ -116,7 +113,7 @@ public class DLDelaunay extends DLPointImage {
       }
       if (parent != null)
         parent.paint(this);
-      dt = System.currentTimeMillis() - start;
+      metrics.step.record(System.nanoTime() - start);
       if (threadSleep > 0) {
         try {
           Thread.sleep(threadSleep);
@@ -127,23 +124,13 @@ public class DLDelaunay extends DLPointImage {
     }
   }
 
-  void paintFPS(Graphics2D g, long frameTime) {
-    if (frameTime == 0)
-      return;
+  void paintFPS(Graphics2D g) {
     DLUtil.SetHints(g);
 
-    NumberFormat nf = new DecimalFormat("000.00");
-    NumberFormat tf = new DecimalFormat("00.00");
-    NumberFormat ff = new DecimalFormat("00000");
-
-    Font f = new Font(Font.MONOSPACED, Font.PLAIN, 10);
-    FontMetrics metrics = g.getFontMetrics(f);
-
-    int descent = metrics.getDescent();
-
-    String s = null;
     if (exception != null) {
-      s = " " + exception.toString() + " ";
+      Font f = new Font(Font.MONOSPACED, Font.PLAIN, 10);
+      int descent = g.getFontMetrics(f).getDescent();
+      String s = " " + exception.toString() + " ";
       FontMetrics m = g.getFontMetrics();
       float w = m.stringWidth(s);
       float h = m.getMaxAscent() + m.getMaxDescent();
@@ -157,24 +144,10 @@ public class DLDelaunay extends DLPointImage {
       g.setColor(exception.color);
       if (exception.count-- <= 0)
         exception = null;
+      g.drawString(s, 5, iheight - descent - 5);
     } else {
-      s = " F#: " + ff.format(frameCount) + 
-          " Fps: " + nf.format(1000. / frameTime) + 
-          " Ft: " + tf.format(frameTime) + " ms ";
-      FontMetrics m = g.getFontMetrics();
-      float w = m.stringWidth(s);
-      float h = m.getMaxAscent() + m.getMaxDescent();
-      float x = 5;
-      float y = iheight - h - 5;
-      Rectangle2D.Float r2d = new Rectangle2D.Float(x, y, w, h);
-      // g.setStroke(new BasicStroke());
-      Color c = new Color(0x66, 0, 0x33);
-      g.setColor(DLUtil.TransparenterColor(DLUtil.Invert(c), 0.65f));
-      g.fill(r2d);
-      g.setColor(c);
-      g.draw(r2d);
+      metrics.overlay(g, frameCount, iheight, null);
     }
-    g.drawString(s, 5, iheight - descent - 5);
   }
 
   BufferedImage image() {
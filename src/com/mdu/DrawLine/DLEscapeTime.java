@@ -0,0 +1,1099 @@
+package com.mdu.DrawLine;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/*
+ * Escape time fractal engine: z -> z^power + c iterated from z0 = 0 with c
+ * the pixel (Mandelbrot and multibrot sets) or, when seed() gives one, from
+ * z0 the pixel with c the seed (Julia sets). The view, tiling, cache, kernel
+ * options, palettes and mouse zoom / pan are shared by every subclass.
+ */
+abstract class DLEscapeTime extends DLPointImage {
+  boolean paintOutside = true;
+  boolean paintInside = true;
+  Point lastMousePoint = null;
+  int maxIter = 1000;
+  int power = 2;
+  DLColorModel model1 = DLUtil.ColorModel1;
+  DLColorModel model2 = DLUtil.ColorModel2;
+  DLColorModel model3 = DLUtil.ColorModel3;
+  DLColorModel model = model3;
+
+  static double XMax = 0.6;
+  static double XMin = -2.1;
+  static double YMax = 1.2;
+  static double YMin = -1.2;
+
+  double xMax = XMax;
+  double xMin = XMin;
+  double yMax = YMax;
+  double yMin = YMin;
+
+  BufferedImage translateImage = null;
+  int currentDx, currentDy;
+  int[][] coordsArray = null;
+
+  static final int TILE = 64;
+  static final int[] PASSES = { 16, 4, 1 };
+  boolean parallel = true;
+  boolean progressive = true;
+
+  /*
+   * Kernel options: continuous counts, cardioid, bulb and cycle skipping,
+   * Mariani-Silver tracing. Traced insides are flat, shades cannot be
+   * filled in, so tracing is off by default.
+   */
+  static final int SUB = 16;
+  static final int UNKNOWN = -1;
+  static final int MIN = 4;
+  boolean smooth = true;
+  boolean skip = true;
+  boolean trace = false;
+
+  /*
+   * Below DEEP the size of a pixel is lost in the rounding of double
+   * coordinates and the view switches to perturbation, see View. Other
+   * formulas than the Mandelbrot set's stay in plain doubles and pixelate.
+   */
+  static final double DEEP = 1e-12;
+  static final double ZOOM = 0.7;
+  static final long FAR = 1L << 40;
+  static final BigDecimal TWO = BigDecimal.valueOf(2);
+  View view;
+  double scaleX;
+  double scaleY;
+  final HashMap<Integer, Lattice> lattices = new HashMap<Integer, Lattice>();
+  int latticeCount;
+  int generation;
+
+  /*
+   * Kernel values of whole lattice tiles of every instance, least recently
+   * used dropped first past CACHE bytes in all. Panning only computes the
+   * tiles that come into view, coming back to a zoom level or changing
+   * colors only recolors. Keys hold the owner, the number of the instance,
+   * and a change of formula the key does not show bumps generation.
+   * Instances whose tiles are not worth keeping, like a preview, turn
+   * cached off.
+   */
+  static final long CACHE = Math.min(4096L * TILE * TILE * 4, Runtime.getRuntime().maxMemory() / 16);
+  static final Tiles cache = new Tiles(CACHE);
+  static final AtomicInteger owners = new AtomicInteger();
+  final int owner = owners.incrementAndGet();
+  boolean cached = true;
+
+  static class Tiles {
+    final long budget;
+    long bytes;
+    final LinkedHashMap<Key, int[]> map = new LinkedHashMap<Key, int[]>(256, 0.75f, true);
+
+    Tiles(long budget) {
+      this.budget = budget;
+    }
+
+    synchronized int[] get(Key k) {
+      return map.get(k);
+    }
+
+    synchronized void put(Key k, int[] values) {
+      int[] o = map.put(k, values);
+      bytes += 4L * values.length - (o == null ? 0 : 4L * o.length);
+      Iterator<int[]> i = map.values().iterator();
+      while (bytes > budget && i.hasNext()) {
+        bytes -= 4L * i.next().length;
+        i.remove();
+      }
+    }
+
+    synchronized int size() {
+      return map.size();
+    }
+
+    synchronized void clear() {
+      map.clear();
+      bytes = 0;
+    }
+  }
+
+  static class Key {
+    final int owner;
+    final int lattice;
+    final int max;
+    final int mode;
+    final long gx;
+    final long gy;
+
+    Key(int owner, int lattice, int max, int mode, long gx, long gy) {
+      this.owner = owner;
+      this.lattice = lattice;
+      this.max = max;
+      this.mode = mode;
+      this.gx = gx;
+      this.gy = gy;
+    }
+
+    public boolean equals(Object o) {
+      if (!(o instanceof Key))
+        return false;
+      Key k = (Key) o;
+      return owner == k.owner && lattice == k.lattice && max == k.max && mode == k.mode && gx == k.gx && gy == k.gy;
+    }
+
+    public int hashCode() {
+      return (Long.hashCode(gx * 31 + gy) * 31 + lattice * 17 + max * 4 + mode) * 31 + owner;
+    }
+  }
+
+  /*
+   * Pixel grid of a zoom level, pixels being ZOOM^level times the size of
+   * the initial ones, anchored at the first center seen at that level. The
+   * views of a level are whole pixel offsets from its anchor, so their tiles
+   * line up and are shared through the cache.
+   *
+   * Pixels are sx * 2^exp wide and sy * 2^exp high, exp being 0 until
+   * doubles would run out of exponent, below about 1e-280.
+   */
+  static class Lattice {
+    final int id;
+    final int level;
+    final BigDecimal x;
+    final BigDecimal y;
+    final double sx;
+    final double sy;
+    final int exp;
+
+    Lattice(int id, int level, BigDecimal x, BigDecimal y, double sx, double sy) {
+      this(id, level, x, y, sx, sy, 0);
+    }
+
+    Lattice(int id, int level, BigDecimal x, BigDecimal y, double sx, double sy, int exp) {
+      this.id = id;
+      this.level = level;
+      this.x = x;
+      this.y = y;
+      this.sx = sx;
+      this.sy = sy;
+      this.exp = exp;
+    }
+  }
+
+  /*
+   * View as a pixel offset px, py of its center from the anchor of a
+   * lattice. The center is at arbitrary precision. Immutable, a zoom or a
+   * move makes a new one so a render in progress keeps a consistent view.
+   *
+   * In deep mode one reference orbit Z is computed at the center with
+   * BigDecimal and each pixel c = C + dc iterates its offset d to it in double
+   * precision, d' = (2Z + d)d + dc, which stays small as long as the pixel
+   * follows the reference. When |Z + d| gets smaller than |d| the offset no
+   * longer fits Z (a glitch) and when the reference escapes before the pixel
+   * there is no Z left; in both cases the pixel is rebased: d becomes the full
+   * z and iteration restarts from Z0 = 0.
+   *
+   * Past the exponent of doubles the offsets are kept in units of 2^exp, see
+   * Kernel.deep(), so zooms have no limit but the time the reference orbit
+   * takes.
+   */
+  static class View {
+    final Lattice l;
+    final long px;
+    final long py;
+    final BigDecimal x;
+    final BigDecimal y;
+    final double sx;
+    final double sy;
+    final int exp;
+
+    View(Lattice l, long px, long py) {
+      this.l = l;
+      this.px = px;
+      this.py = py;
+      sx = l.sx;
+      sy = l.sy;
+      exp = l.exp;
+      MathContext mc = precision();
+      x = l.x.add(Scalb(new BigDecimal(sx).multiply(BigDecimal.valueOf(px)), exp), mc);
+      y = l.y.add(Scalb(new BigDecimal(sy).multiply(BigDecimal.valueOf(py)), exp), mc);
+    }
+
+    boolean deep() {
+      return exp < 0 || Math.min(sx, sy) < DEEP;
+    }
+
+    MathContext precision() {
+      return Precision(Math.min(sx, sy), exp);
+    }
+
+    /*
+     * Reference orbit of the center up to max iterations or its escape,
+     * rounded to double, { re, im } with Z0 = 0 first. Null if t was stopped.
+     */
+    double[][] orbit(int max, DLThread t) {
+      MathContext mc = precision();
+      double[] ox = new double[max + 1];
+      double[] oy = new double[max + 1];
+      BigDecimal zx = BigDecimal.ZERO;
+      BigDecimal zy = BigDecimal.ZERO;
+      int n = 0;
+      while (n < max) {
+        if (t != null && (n & 255) == 0 && t.isStopped())
+          return null;
+        BigDecimal x2 = zx.multiply(zx, mc);
+        BigDecimal y2 = zy.multiply(zy, mc);
+        zy = zx.multiply(zy, mc).multiply(TWO).add(y, mc);
+        zx = x2.subtract(y2, mc).add(x, mc);
+        n++;
+        ox[n] = zx.doubleValue();
+        oy[n] = zy.doubleValue();
+        if (ox[n] * ox[n] + oy[n] * oy[n] > 4)
+          break;
+      }
+      return new double[][] { Arrays.copyOf(ox, n + 1), Arrays.copyOf(oy, n + 1) };
+    }
+  }
+
+  /*
+   * Enough digits for a center to resolve pixels of size s * 2^exp.
+   */
+  static MathContext Precision(double s, int exp) {
+    return new MathContext(Math.max(34, 20 - (int) Math.floor(Math.log10(s) + exp * Math.log10(2))));
+  }
+
+  /*
+   * v * 2^exp, exactly.
+   */
+  static BigDecimal Scalb(BigDecimal v, int exp) {
+    if (exp >= 0)
+      return exp == 0 ? v : v.multiply(new BigDecimal(BigInteger.ONE.shiftLeft(exp)));
+    return v.multiply(new BigDecimal(BigInteger.valueOf(5).pow(-exp))).scaleByPowerOfTen(exp);
+  }
+
+  DLEscapeTime() {
+    super();
+  }
+
+  DLEscapeTime(float x, float y) {
+    super(x, y);
+  }
+
+  /*
+   * Constant c of a Julia set, null for z0 = 0 and c the pixel.
+   */
+  double[] seed() {
+    return null;
+  }
+
+  /*
+   * Perturbation only knows the Mandelbrot set.
+   */
+  boolean perturbed() {
+    return seed() == null && power == 2;
+  }
+
+  public void paint(Graphics gr, boolean deco) {
+    super.paint(gr, deco);
+    if (translateImage != null) {
+      Rectangle r = getBounds(false);
+//      Shape c = gr.getClip();
+      gr.setClip(r);
+      gr.drawImage(translateImage, (int) x - iwidth / 2 + currentDx, (int) y - iheight / 2 + currentDy, null);
+//      gr.setClip(c);
+      gr.setClip(null);
+    }
+  }
+
+  public void f(Graphics2D g, DLThread t) {
+    if (parallel || view().deep()) {
+      tiles(t);
+      return;
+    }
+
+    /*
+     * Serial renderer, one pixel at a time in random order drawn as a
+     * point.
+     */
+    final View v = view();
+    final int[] outside = outsidePalette();
+    final int[] inside = insidePalette();
+    final Kernel kernel = kernel(v, null);
+    final long ox = v.px - iwidth / 2;
+    final long oy = v.py - iheight / 2;
+
+    if (coordsArray == null)
+      coordsArray = DLUtil.ShuffleCoords(iwidth, iheight);
+    int[][] al = coordsArray;
+
+    for (int i = 0; i < al.length; i++) {
+      if ((t != null) && t.isStopped())
+        return;
+
+      int x = al[i][0];
+      int y = al[i][1];
+      int c = color(kernel.value(ox + x, oy + y), outside, inside);
+      if (c != 0) {
+        setPointFill(new Color(c));
+        drawPoint(g, x, y);
+      }
+      if (parent != null && i % 1024 == 0)
+        parent.paint(this, getBounds());
+    }
+
+    if (parent != null)
+      parent.paint(getBounds());
+  }
+
+  /*
+   * A lattice tile of a render: gx, gy on the lattice, x, y of its top left
+   * corner in the image and its values, see cache.
+   */
+  static class Tile {
+    final long gx;
+    final long gy;
+    final int x;
+    final int y;
+    int[] values;
+    boolean done;
+
+    Tile(long gx, long gy, int x, int y) {
+      this.gx = gx;
+      this.gy = gy;
+      this.x = x;
+      this.y = y;
+    }
+  }
+
+  /*
+   * Lattice tiles covering a w x h view, the ones nearest to the center
+   * first.
+   */
+  static Tile[] Tiles(View v, int w, int h) {
+    final long ox = v.px - w / 2;
+    final long oy = v.py - h / 2;
+    final long gx1 = Math.floorDiv(ox, TILE);
+    final long gx2 = Math.floorDiv(ox + w - 1, TILE);
+    final long gy1 = Math.floorDiv(oy, TILE);
+    final long gy2 = Math.floorDiv(oy + h - 1, TILE);
+    ArrayList<Tile> tiles = new ArrayList<Tile>();
+    for (long gy = gy1; gy <= gy2; gy++)
+      for (long gx = gx1; gx <= gx2; gx++)
+        tiles.add(new Tile(gx, gy, (int) (gx * TILE - ox), (int) (gy * TILE - oy)));
+    final double cx = (w - TILE) / 2.;
+    final double cy = (h - TILE) / 2.;
+    tiles.sort((a, b) -> Double.compare(Point2D.distanceSq(a.x, a.y, cx, cy), Point2D.distanceSq(b.x, b.y, cx, cy)));
+    return tiles.toArray(new Tile[tiles.size()]);
+  }
+
+  View view() {
+    if (view == null) {
+      scaleX = (xMax - xMin) / iwidth;
+      scaleY = (yMax - yMin) / iheight;
+      view = view(0, new BigDecimal((xMin + xMax) / 2), new BigDecimal((yMin + yMax) / 2));
+    }
+    return view;
+  }
+
+  /*
+   * View of level centered on the lattice pixel nearest to x, y. A lattice
+   * too far away for a pixel offset is replaced by a new one anchored at x, y.
+   */
+  View view(int level, BigDecimal x, BigDecimal y) {
+    Lattice l = lattices.get(level);
+    if (l != null) {
+      double dx = Scalb(x.subtract(l.x), -l.exp).doubleValue() / l.sx;
+      double dy = Scalb(y.subtract(l.y), -l.exp).doubleValue() / l.sy;
+      if (Math.abs(dx) < FAR && Math.abs(dy) < FAR)
+        return new View(l, Math.round(dx), Math.round(dy));
+    }
+    /* ZOOM^level as z * 2^exp once it would underflow */
+    double z = Math.pow(ZOOM, level);
+    int exp = 0;
+    if (z < 1e-280) {
+      double e = level * Math.log(ZOOM) / Math.log(2);
+      exp = (int) Math.floor(e);
+      z = Math.pow(2, e - exp);
+    }
+    l = new Lattice(latticeCount++, level, x, y, scaleX * z, scaleY * z, exp);
+    lattices.put(level, l);
+    return new View(l, 0, 0);
+  }
+
+  /*
+   * Sets the view and the double bounds the serial renderer uses.
+   */
+  void view(View v) {
+    view = v;
+    double sx = Math.scalb(v.sx, v.exp);
+    double sy = Math.scalb(v.sy, v.exp);
+    xMin = v.x.doubleValue() - sx * (iwidth / 2);
+    xMax = xMin + sx * iwidth;
+    yMin = v.y.doubleValue() - sy * (iheight / 2);
+    yMax = yMin + sy * iheight;
+  }
+
+  int[] outsidePalette() {
+    int n = maxIter * SUB;
+    int[] p = new int[n];
+    for (int k = 0; k < n; k++)
+      p[k] = 0xff000000 | model.getColor((float) k / n);
+    return p;
+  }
+
+  int[] insidePalette() {
+    int[] p = new int[256];
+    for (int k = 0; k < 256; k++)
+      p[k] = 0xff000000 | model.getColor(k / 255f);
+    return p;
+  }
+
+  /*
+   * Escape time of the lattice pixels of a render, for power and seed, see
+   * DLEscapeTime.
+   *
+   * Values are fixed point iteration counts, SUB steps per iteration, below
+   * lim = max * SUB; lim + s is a point inside of shade s, flat ones all have
+   * shade 255. With smooth the count is continuous, k + 1 - log(log|z|) /
+   * log(power), escaping at BAIL rather than 2 for an accurate fraction.
+   *
+   * With skip, Mandelbrot pixels in the main cardioid or in the period 2
+   * bulb are inside without iterating, and orbits are checked for cycles the way of Brent: z
+   * is saved at every power of two iterations and compared to the following
+   * ones, an orbit coming back within EPS of the saved z is periodic, hence
+   * inside. Their shade is |z|² at max found on the cycle, or on average over
+   * it in the bulb. Deep pixels are only known relative to the reference and
+   * are never skipped.
+   */
+  static class Kernel {
+    static final double BAIL = 256;
+    static final double EPS = 1e-14;
+    static final int RESCALE = 512;
+    static final double LARGE = 0x1p512;
+
+    final double ax;
+    final double ay;
+    final double sx;
+    final double sy;
+    final int exp;
+    final long px;
+    final long py;
+    final double[] ox;
+    final double[] oy;
+    final int last;
+    final int power;
+    final boolean julia;
+    final double jr;
+    final double ji;
+    final double lnp;
+    final int max;
+    final int lim;
+    final double bail;
+    final boolean smooth;
+    final boolean skip;
+    final boolean flat;
+
+    Kernel(View v, double[][] orbit, int power, double[] seed, int max, boolean smooth, boolean skip, boolean flat) {
+      ax = v.l.x.doubleValue();
+      ay = v.l.y.doubleValue();
+      sx = v.sx;
+      sy = v.sy;
+      exp = v.exp;
+      px = v.px;
+      py = v.py;
+      ox = orbit == null ? null : orbit[0];
+      oy = orbit == null ? null : orbit[1];
+      last = orbit == null ? 0 : ox.length - 1;
+      this.power = power;
+      julia = seed != null;
+      jr = julia ? seed[0] : 0;
+      ji = julia ? seed[1] : 0;
+      lnp = Math.log(power);
+      this.max = max;
+      lim = max * SUB;
+      bail = smooth ? BAIL : 4;
+      this.smooth = smooth;
+      this.skip = skip;
+      this.flat = flat;
+    }
+
+    /*
+     * Value of lattice pixel x, y. Plain doubles are taken from the lattice
+     * anchor so a pixel gets the same value whatever the view it is computed
+     * for, deep offsets from the view center.
+     */
+    int value(long x, long y) {
+      if (ox != null)
+        return deep((x - px) * sx, (y - py) * sy);
+
+      final double cr = ax + x * sx;
+      final double ci = ay + y * sy;
+      if (julia)
+        return orbit(cr, ci, jr, ji);
+      if (skip && power == 2) {
+        final double q = (cr - 0.25) * (cr - 0.25) + ci * ci;
+        if (q * (q + cr - 0.25) <= 0.25 * ci * ci)
+          return inside(Cardioid(cr, ci));
+        if ((cr + 1) * (cr + 1) + ci * ci <= 0.0625)
+          return inside((1 + Math.hypot(3 + 4 * cr, 4 * ci)) / 4);
+      }
+      return orbit(0, 0, cr, ci);
+    }
+
+    int orbit(double zr, double zi, double cr, double ci) {
+      double stop = 0;
+      double pr = 0;
+      double pi = 0;
+      int saved = 0;
+      int next = 1;
+      int k = 0;
+      while (k < max) {
+        if (power == 2) {
+          final double tmp = zr;
+          zr = zr * zr - zi * zi + cr;
+          zi = 2 * zi * tmp + ci;
+        } else {
+          double r = zr;
+          double i = zi;
+          for (int p = 1; p < power; p++) {
+            final double tmp = r * zr - i * zi;
+            i = r * zi + i * zr;
+            r = tmp;
+          }
+          zr = r + cr;
+          zi = i + ci;
+        }
+        stop = zr * zr + zi * zi;
+        k++;
+        if (stop >= bail)
+          return escape(k, stop);
+        if (skip) {
+          if (Math.abs(zr - pr) < EPS && Math.abs(zi - pi) < EPS) {
+            if (flat)
+              return lim + 255;
+            for (int n = (max - k) % (k - saved); n > 0; n--) {
+              double r = zr;
+              double i = zi;
+              for (int p = 1; p < power; p++) {
+                final double tmp = r * zr - i * zi;
+                i = r * zi + i * zr;
+                r = tmp;
+              }
+              zr = r + cr;
+              zi = i + ci;
+            }
+            return inside(zr * zr + zi * zi);
+          }
+          if (k == next) {
+            pr = zr;
+            pi = zi;
+            saved = k;
+            next <<= 1;
+          }
+        }
+      }
+      return inside(stop);
+    }
+
+    /*
+     * Perturbation around the reference orbit, see View. While e < 0 the
+     * offsets d and dc are in units of 2^e, their true values being too
+     * small for a double: d' = (2Z + d 2^e)d + dc is the same iteration, and
+     * as d grows both are rebased by RESCALE until e gets back to 0. Once
+     * rebased dc may have underflowed, it is then negligible next to d.
+     */
+    int deep(double dcr, double dci) {
+      double dr = 0;
+      double di = 0;
+      double stop = 0;
+      int e = exp;
+      int m = 0;
+      int k = 0;
+      while (k < max) {
+        double sr = e == 0 ? dr : Math.scalb(dr, e);
+        double si = e == 0 ? di : Math.scalb(di, e);
+        final double tr = 2 * ox[m] + sr;
+        final double ti = 2 * oy[m] + si;
+        final double tmp = tr * dr - ti * di + dcr;
+        di = tr * di + ti * dr + dci;
+        dr = tmp;
+        m++;
+        k++;
+        if (e != 0) {
+          if (Math.abs(dr) + Math.abs(di) > LARGE) {
+            int s = Math.min(RESCALE, -e);
+            dr = Math.scalb(dr, -s);
+            di = Math.scalb(di, -s);
+            dcr = Math.scalb(dcr, -s);
+            dci = Math.scalb(dci, -s);
+            e += s;
+          }
+          sr = Math.scalb(dr, e);
+          si = Math.scalb(di, e);
+        } else {
+          sr = dr;
+          si = di;
+        }
+        final double zr = ox[m] + sr;
+        final double zi = oy[m] + si;
+        stop = zr * zr + zi * zi;
+        if (stop >= bail)
+          return escape(k, stop);
+        if (m == last || stop < sr * sr + si * si) {
+          if (e != 0) {
+            dcr = Math.scalb(dcr, e);
+            dci = Math.scalb(dci, e);
+            e = 0;
+          }
+          dr = zr;
+          di = zi;
+          m = 0;
+        }
+      }
+      return inside(stop);
+    }
+
+    int escape(int k, double stop) {
+      if (!smooth)
+        return k * SUB;
+      double nu = k + 1 - Math.log(Math.log(stop) / 2) / lnp;
+      int v = (int) (nu * SUB);
+      return v < 0 ? 0 : v >= lim ? lim - 1 : v;
+    }
+
+    int inside(double stop) {
+      if (flat)
+        return lim + 255;
+      int s = (int) ((stop - 0.01) / 0.98 * 255);
+      return lim + (s < 0 ? 0 : s > 255 ? 255 : s);
+    }
+
+    /*
+     * |z|² of the fixed point (1 - sqrt(1 - 4c)) / 2 of a c in the cardioid.
+     */
+    static double Cardioid(double cr, double ci) {
+      final double ar = 1 - 4 * cr;
+      final double ai = -4 * ci;
+      final double r = Math.hypot(ar, ai);
+      final double wr = 1 - Math.sqrt((r + ar) / 2);
+      final double wi = Math.copySign(Math.sqrt((r - ar) / 2), ai);
+      return (wr * wr + wi * wi) / 4;
+    }
+  }
+
+  /*
+   * Parallel renderer. Cached tiles are drawn first, the others are handed
+   * out in order to the workers of the common fork/join pool, then cached.
+   * Colors come from palettes indexed by value and each tile is written to
+   * the raster and repainted as soon as it is done.
+   *
+   * In progressive mode the tiles are rendered once per stride of PASSES,
+   * each sample filling its stride² block. A pass only computes the samples
+   * the previous, coarser, pass did not: the grid of stride 16 is a subset of
+   * the grid of stride 4, itself a subset of the full grid. Strides are powers
+   * of two dividing TILE.
+   */
+  void tiles(final DLThread t) {
+    final BufferedImage img = image;
+    if (img == null)
+      return;
+    final View v = view();
+    final int[] outside = outsidePalette();
+    final int[] inside = insidePalette();
+    final int max = maxIter;
+    final int mode = (smooth ? 1 : 0) | (trace ? 2 : 0) | power << 2 | generation << 6;
+    final Tile[] tiles = Tiles(v, iwidth, iheight);
+
+    int missing = 0;
+    for (Tile tile : tiles) {
+      tile.values = cached ? cache.get(new Key(owner, v.l.id, max, mode, tile.gx, tile.gy)) : null;
+      tile.done = tile.values != null;
+      if (tile.done)
+        draw(img, tile, 1, outside, inside);
+      else {
+        tile.values = new int[TILE * TILE];
+        Arrays.fill(tile.values, UNKNOWN);
+        missing++;
+      }
+    }
+
+    if (missing > 0) {
+      final boolean deep = v.deep() && perturbed();
+      final double[][] orbit = deep ? v.orbit(max, t) : null;
+      if (deep && orbit == null)
+        return;
+      final Kernel kernel = kernel(v, orbit);
+      final int workers = ForkJoinPool.getCommonPoolParallelism() + 1;
+      final int[] passes = progressive ? PASSES : new int[] { 1 };
+
+      for (final int stride : passes) {
+        final AtomicInteger next = new AtomicInteger();
+        IntStream.range(0, workers).parallel().forEach(w -> {
+          int i;
+          while ((i = next.getAndIncrement()) < tiles.length) {
+            if (t != null && t.isStopped())
+              return;
+            final Tile tile = tiles[i];
+            if (tile.done)
+              continue;
+            if (!tile(tile, t, kernel, stride))
+              return;
+            draw(img, tile, stride, outside, inside);
+            if (stride == 1 && cached)
+              cache.put(new Key(owner, v.l.id, max, mode, tile.gx, tile.gy), tile.values);
+          }
+        });
+        if (t != null && t.isStopped())
+          return;
+      }
+    }
+
+    /* tile flushes leave the static layer alone, it may still hold the last image */
+    if (parent != null)
+      parent.paint(getBounds());
+  }
+
+  /*
+   * Computes the unknown values of the stride grid of tile, false if t was
+   * stopped. The full grid is traced if trace is on.
+   */
+  boolean tile(Tile tile, DLThread t, Kernel kernel, int stride) {
+    if (stride == 1 && trace)
+      return trace(tile, t, kernel, 0, 0, TILE - 1, TILE - 1);
+    for (int y = 0; y < TILE; y += stride) {
+      if (t != null && t.isStopped())
+        return false;
+      for (int x = 0; x < TILE; x += stride)
+        value(tile, kernel, x, y);
+    }
+    return true;
+  }
+
+  int value(Tile tile, Kernel kernel, int x, int y) {
+    final int i = y * TILE + x;
+    int v = tile.values[i];
+    if (v == UNKNOWN)
+      v = tile.values[i] = kernel.value(tile.gx * TILE + x, tile.gy * TILE + y);
+    return v;
+  }
+
+  /*
+   * Mariani-Silver. The rectangle x1, y1 - x2, y2 of tile, bounds included,
+   * is filled with the value of its border when the border and the values
+   * already known inside all agree, else it is split in four down to MIN.
+   * The set being connected and without holes, a border inside the set
+   * bounds an inside; outside, equal counts are assumed to stay equal.
+   */
+  boolean trace(Tile tile, DLThread t, Kernel kernel, int x1, int y1, int x2, int y2) {
+    if (t != null && t.isStopped())
+      return false;
+    final int[] values = tile.values;
+    final int v = value(tile, kernel, x1, y1);
+    boolean uniform = true;
+    for (int x = x1; x <= x2; x++)
+      uniform &= value(tile, kernel, x, y1) == v & value(tile, kernel, x, y2) == v;
+    for (int y = y1 + 1; y < y2; y++)
+      uniform &= value(tile, kernel, x1, y) == v & value(tile, kernel, x2, y) == v;
+
+    for (int y = y1 + 1; uniform && y < y2; y++)
+      for (int x = x1 + 1, i = y * TILE + x; x < x2; x++, i++)
+        if (values[i] != UNKNOWN && values[i] != v) {
+          uniform = false;
+          break;
+        }
+    if (uniform) {
+      for (int y = y1 + 1; y < y2; y++)
+        for (int x = x1 + 1, i = y * TILE + x; x < x2; x++, i++)
+          values[i] = v;
+      return true;
+    }
+
+    if (x2 - x1 <= MIN || y2 - y1 <= MIN) {
+      for (int y = y1 + 1; y < y2; y++)
+        for (int x = x1 + 1; x < x2; x++)
+          value(tile, kernel, x, y);
+      return true;
+    }
+    final int mx = (x1 + x2) / 2;
+    final int my = (y1 + y2) / 2;
+    return trace(tile, t, kernel, x1, y1, mx, my) && trace(tile, t, kernel, mx, y1, x2, my)
+        && trace(tile, t, kernel, x1, my, mx, y2) && trace(tile, t, kernel, mx, my, x2, y2);
+  }
+
+  Kernel kernel(View v, double[][] orbit) {
+    return new Kernel(v, orbit, power, seed(), maxIter, smooth, skip, trace);
+  }
+
+  int color(int k, int[] outside, int[] inside) {
+    if (k < outside.length)
+      return paintOutside ? outside[k] : 0;
+    return paintInside ? inside[k - outside.length] : 0;
+  }
+
+  /*
+   * Colors the visible part of tile, each sample of the stride grid filling
+   * its block, writes it to img and repaints it.
+   */
+  void draw(BufferedImage img, Tile tile, int stride, int[] outside, int[] inside) {
+    final int x1 = Math.max(0, tile.x);
+    final int y1 = Math.max(0, tile.y);
+    final int x2 = Math.min(iwidth, tile.x + TILE);
+    final int y2 = Math.min(iheight, tile.y + TILE);
+    if (x1 >= x2 || y1 >= y2)
+      return;
+    final int mask = -stride;
+    final int[] values = tile.values;
+    final int[] rgb = new int[(x2 - x1) * (y2 - y1)];
+    for (int y = y1, p = 0; y < y2; y++) {
+      final int row = ((y - tile.y) & mask) * TILE;
+      for (int x = x1; x < x2; x++, p++)
+        rgb[p] = color(values[row + ((x - tile.x) & mask)], outside, inside);
+    }
+    img.getRaster().setDataElements(x1, y1, x2 - x1, y2 - y1, rgb);
+    if (parent != null)
+      parent.paint(this, new Rectangle((int) (this.x - iwidth / 2f) + x1, (int) (this.y - iheight / 2f) + y1, x2 - x1,
+          y2 - y1));
+  }
+
+  public boolean getSmooth() {
+    return smooth;
+  }
+
+  public void setSmooth(boolean smooth) {
+    this.smooth = smooth;
+    stopAll();
+    clearImage();
+    runThreaded();
+  }
+
+  public boolean getSkip() {
+    return skip;
+  }
+
+  public void setSkip(boolean skip) {
+    this.skip = skip;
+    stopAll();
+    clearImage();
+    runThreaded();
+  }
+
+  public boolean getTrace() {
+    return trace;
+  }
+
+  public void setTrace(boolean trace) {
+    this.trace = trace;
+    stopAll();
+    clearImage();
+    runThreaded();
+  }
+
+  public boolean getProgressive() {
+    return progressive;
+  }
+
+  public void setProgressive(boolean progressive) {
+    this.progressive = progressive;
+    stopAll();
+    clearImage();
+    runThreaded();
+  }
+
+  public boolean getParallel() {
+    return parallel;
+  }
+
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+    stopAll();
+    clearImage();
+    runThreaded();
+  }
+
+  public DLColorModel getModel() {
+    return model;
+  }
+
+  public void setModel(DLColorModel model) {
+    this.model = model;
+    stopAll();
+    clearImage();
+    runThreaded();
+  }
+
+  public DLColorModel[] enumModel() {
+    return new DLColorModel[] { model1, model2, model3 };
+  }
+
+  public boolean getPaintInside() {
+    return paintInside;
+  }
+
+  public void setPaintInside(boolean paintInside) {
+    this.paintInside = paintInside;
+    stopAll();
+    clearImage();
+    runThreaded();
+  }
+
+  @Override
+  BufferedImage image() {
+    final BufferedImage img = new BufferedImage(iwidth, iheight, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g = img.createGraphics();
+    DLUtil.SetHints(g);
+    image = img;
+
+    if (threaded)
+      runThreaded(g);
+    else
+      f(g, null);
+    return img;
+  }
+
+  boolean mouse(MouseEvent e) {
+    if (e instanceof MouseWheelEvent) {
+      final MouseWheelEvent mwe = (MouseWheelEvent) e;
+      float x = e.getX() - (this.x - iwidth / 2);
+      float y = e.getY() - (this.y - iheight / 2);
+      final int d = mwe.getWheelRotation();
+      zoom(x, y, d);
+      return true;
+    }
+    switch (e.getID()) {
+    case MouseEvent.MOUSE_DRAGGED:
+      if (lastMousePoint == null)
+        lastMousePoint = e.getPoint();
+      else {
+        final Point p = e.getPoint();
+        final int dx = lastMousePoint.x - p.x;
+        final int dy = lastMousePoint.y - p.y;
+        currentDx -= dx;
+        currentDy -= dy;
+        translate(dx, dy);
+        lastMousePoint = p;
+      }
+      return true;
+    case MouseEvent.MOUSE_PRESSED:
+      lastMousePoint = e.getPoint();
+      translateImage = DLUtil.copy(image, null);
+      currentDx = 0;
+      currentDy = 0;
+      return true;
+    case MouseEvent.MOUSE_RELEASED:
+      lastMousePoint = null;
+      translateImage = null;
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  void translate(int dx, int dy) {
+    View v = view();
+    view(new View(v.l, v.px + dx, v.py + dy));
+
+    stopAll();
+    preview(AffineTransform.getTranslateInstance(-dx, -dy));
+    runThreaded();
+  }
+
+  /*
+   * Keeps the current image, moved by tx, as a preview of the new view
+   * until the passes overwrite it.
+   */
+  void preview(AffineTransform tx) {
+    if (image == null || !progressive) {
+      clearImage();
+      return;
+    }
+    BufferedImage old = DLUtil.copy(image, null);
+    clearImage();
+    Graphics2D g = image.createGraphics();
+    g.drawImage(old, tx, null);
+    g.dispose();
+  }
+
+  public boolean getPaintOutside() {
+    return paintOutside;
+  }
+
+  public void setPaintOutside(boolean paintOutside) {
+    this.paintOutside = paintOutside;
+    stopAll();
+    clearImage();
+    runThreaded();
+  }
+
+  public int getMaxIter() {
+    return maxIter;
+  }
+
+  public void setMaxIter(int maxIter) {
+    this.maxIter = maxIter;
+    stopAll();
+    clearImage();
+    runThreaded();
+  }
+
+  public int[] rangeMaxIter() {
+    return new int[] { 50, 10000 };
+  }
+
+  public int getPower() {
+    return power;
+  }
+
+  public void setPower(int power) {
+    this.power = power;
+    stopAll();
+    clearImage();
+    runThreaded();
+  }
+
+  public int[] rangePower() {
+    return new int[] { 2, 8 };
+  }
+
+  void zoom(float x, float y, int d) {
+    double zoom;
+
+    if (d > 0)
+      zoom = ZOOM;
+    else
+      zoom = 1. / ZOOM;
+
+    stopAll();
+    /*
+     * Keeps the point under x, y in place.
+     */
+    View v = view();
+    double dx = x - iwidth / 2;
+    double dy = y - iheight / 2;
+    MathContext mc = Precision(Math.min(v.sx, v.sy) * zoom, v.exp);
+    BigDecimal cx = v.x.add(Scalb(new BigDecimal(dx * v.sx * (1 - zoom)), v.exp), mc);
+    BigDecimal cy = v.y.add(Scalb(new BigDecimal(dy * v.sy * (1 - zoom)), v.exp), mc);
+    view(view(v.l.level + (d > 0 ? 1 : -1), cx, cy));
+
+    AffineTransform pt = AffineTransform.getTranslateInstance(x, y);
+    pt.scale(1 / zoom, 1 / zoom);
+    pt.translate(-x, -y);
+    preview(pt);
+    runThreaded();
+  }
+}
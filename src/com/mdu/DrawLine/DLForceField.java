@@ -0,0 +1,148 @@
+package com.mdu.DrawLine;
+
+import java.util.Arrays;
+
+import com.jhlabs.math.FFT;
+
+/*
+ * Pull field sampled on a cols x rows grid of spacing hx, hy, computed by FFT
+ * convolution. Masses are deposited on the grid nodes, cloud in cell, and the
+ * density is convolved with the pull of a unit mass, dx / d2 or dx / d2^1.5
+ * when square, as x + i y in one complex kernel: the real and imaginary parts
+ * of the product come back as the two components. The grid is padded to
+ * twice its size, rounded up to powers of two, so the convolution does not
+ * wrap around. The kernel transform is kept until the geometry changes.
+ *
+ * A frame costs two transforms of the padded grid whatever the number of
+ * masses, less the rows of the padding, which are zero going in and not
+ * wanted coming out. Masses off the grid are not counted, and the pull from
+ * closer than a node is smoothed out.
+ */
+class DLForceField {
+  final int cols;
+  final int rows;
+  final float hx;
+  final float hy;
+  final boolean square;
+  final int pw;
+  final int ph;
+  final FFT fft;
+  final float[] kre;
+  final float[] kim;
+  final float[] re;
+  final float[] im;
+  final float[] tre;
+  final float[] tim;
+
+  DLForceField(int cols, int rows, float hx, float hy, boolean square) {
+    this.cols = cols;
+    this.rows = rows;
+    this.hx = hx;
+    this.hy = hy;
+    this.square = square;
+    pw = Integer.highestOneBit(Math.max(1, 2 * cols - 1)) * 2;
+    ph = Integer.highestOneBit(Math.max(1, 2 * rows - 1)) * 2;
+    fft = new FFT(Integer.numberOfTrailingZeros(Math.max(pw, ph)));
+    kre = new float[pw * ph];
+    kim = new float[pw * ph];
+    re = new float[pw * ph];
+    im = new float[pw * ph];
+    tre = new float[Math.max(pw, ph)];
+    tim = new float[Math.max(pw, ph)];
+    /* pull towards a mass s cells away, stored at -s so it is a convolution */
+    for (int b = 0; b < ph; b++)
+      for (int a = 0; a < pw; a++) {
+        float dx = -(a < pw / 2 ? a : a - pw) * hx;
+        float dy = -(b < ph / 2 ? b : b - ph) * hy;
+        float d2 = dx * dx + dy * dy;
+        if (d2 == 0)
+          continue;
+        float k = square ? 1 / (d2 * (float) Math.sqrt(d2)) : 1 / d2;
+        kre[b * pw + a] = dx * k;
+        kim[b * pw + a] = dy * k;
+      }
+    fft.transform2D(kre, kim, pw, ph, true);
+  }
+
+  boolean fits(int cols, int rows, float hx, float hy, boolean square) {
+    return this.cols == cols && this.rows == rows && this.hx == hx && this.hy == hy && this.square == square;
+  }
+
+  void clear() {
+    Arrays.fill(re, 0);
+    Arrays.fill(im, 0);
+  }
+
+  /*
+   * Spreads mass m at grid coordinates u, v on the four nodes around it.
+   */
+  void deposit(float u, float v, float m) {
+    int i = (int) Math.floor(u);
+    int j = (int) Math.floor(v);
+    float fu = u - i;
+    float fv = v - j;
+    add(i, j, m * (1 - fu) * (1 - fv));
+    add(i + 1, j, m * fu * (1 - fv));
+    add(i, j + 1, m * (1 - fu) * fv);
+    add(i + 1, j + 1, m * fu * fv);
+  }
+
+  void add(int i, int j, float m) {
+    if (i >= 0 && i < cols && j >= 0 && j < rows)
+      re[j * pw + i] += m;
+  }
+
+  /*
+   * Pull at node i, j in fx(i, j), fy(i, j) once solved.
+   */
+  void solve() {
+    rows(true);
+    columns(true);
+    for (int k = 0; k < re.length; k++) {
+      float a = re[k], b = im[k];
+      re[k] = a * kre[k] - b * kim[k];
+      im[k] = a * kim[k] + b * kre[k];
+    }
+    columns(false);
+    rows(false);
+  }
+
+  /*
+   * Transforms the rows of the grid, as transform2D does, but only the first
+   * rows ones.
+   */
+  void rows(boolean forward) {
+    int log = Integer.numberOfTrailingZeros(pw);
+    for (int j = 0; j < rows; j++) {
+      int o = j * pw;
+      System.arraycopy(re, o, tre, 0, pw);
+      System.arraycopy(im, o, tim, 0, pw);
+      fft.transform1D(tre, tim, log, pw, forward);
+      System.arraycopy(tre, 0, re, o, pw);
+      System.arraycopy(tim, 0, im, o, pw);
+    }
+  }
+
+  void columns(boolean forward) {
+    int log = Integer.numberOfTrailingZeros(ph);
+    for (int i = 0; i < pw; i++) {
+      for (int j = 0, k = i; j < ph; j++, k += pw) {
+        tre[j] = re[k];
+        tim[j] = im[k];
+      }
+      fft.transform1D(tre, tim, log, ph, forward);
+      for (int j = 0, k = i; j < ph; j++, k += pw) {
+        re[k] = tre[j];
+        im[k] = tim[j];
+      }
+    }
+  }
+
+  float fx(int i, int j) {
+    return re[j * pw + i];
+  }
+
+  float fy(int i, int j) {
+    return im[j * pw + i];
+  }
+}
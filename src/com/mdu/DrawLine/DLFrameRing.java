@@ -0,0 +1,81 @@
+package com.mdu.DrawLine;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Triple buffered frame handoff between a simulation thread and its painter.
+ * The simulation fills the back buffer and swaps it in, the painter reads the
+ * latest complete front buffer. Both sides only swap buffer indices with a
+ * CAS, so neither ever waits for the other.
+ *
+ * State layout: bits 0-1 back, 2-3 middle, 4-5 front, bit 6 set when the
+ * middle buffer holds a frame the painter has not picked up yet.
+ */
+class DLFrameRing {
+  static final int FRESH = 1 << 6;
+
+  final BufferedImage[] buffers = new BufferedImage[3];
+  final AtomicInteger state = new AtomicInteger(0 | (1 << 2) | (2 << 4));
+  final int width;
+  final int height;
+  final int type;
+
+  DLFrameRing(int w, int h, int type) {
+    width = w;
+    height = h;
+    this.type = type;
+    for (int i = 0; i < buffers.length; i++)
+      buffers[i] = new BufferedImage(w, h, type);
+  }
+
+  boolean fits(BufferedImage i) {
+    return i.getWidth() == width && i.getHeight() == height && i.getType() == type;
+  }
+
+  BufferedImage back() {
+    return buffers[state.get() & 3];
+  }
+
+  BufferedImage copy(BufferedImage src) {
+    BufferedImage b = back();
+    Graphics2D g = b.createGraphics();
+    g.setComposite(AlphaComposite.Src);
+    g.drawImage(src, 0, 0, null);
+    g.dispose();
+    return b;
+  }
+
+  BufferedImage copy(int[] pixels) {
+    BufferedImage b = back();
+    b.getRaster().setDataElements(0, 0, width, height, pixels);
+    return b;
+  }
+
+  void swap() {
+    int s, n;
+    do {
+      s = state.get();
+      int back = s & 3;
+      int middle = (s >> 2) & 3;
+      int front = (s >> 4) & 3;
+      n = middle | (back << 2) | (front << 4) | FRESH;
+    } while (!state.compareAndSet(s, n));
+  }
+
+  BufferedImage front() {
+    int s, n;
+    do {
+      s = state.get();
+      if ((s & FRESH) == 0)
+        return buffers[(s >> 4) & 3];
+      int back = s & 3;
+      int middle = (s >> 2) & 3;
+      int front = (s >> 4) & 3;
+      n = back | (front << 2) | (middle << 4);
+    } while (!state.compareAndSet(s, n));
+    return buffers[(n >> 4) & 3];
+  }
+}
@@ -0,0 +1,133 @@
+package com.mdu.DrawLine;
+
+import java.util.Arrays;
+
+/*
+ * Uniform grid over flat coordinate arrays, rebuilt in O(n) for each step.
+ * Square cells of the given size are hashed into a power of two number of
+ * buckets, about one per point, and the points are counting sorted by bucket
+ * so bucket b holds items[start[b]] to items[start[b + 1] - 1]. No cell is
+ * stored, the plane is unbounded and points far apart cost nothing.
+ *
+ * near() hands every point within r of x, y to the Visitor, at most once,
+ * along with the other points of the buckets it looks at: the caller filters
+ * on its own distance. With cells as large as the interaction radius a query
+ * looks at 9 cells at most.
+ */
+class DLGrid {
+  interface Visitor {
+    void visit(int j);
+  }
+
+  float[] x;
+  float[] y;
+  int n;
+  float cell;
+  int mask;
+  int[] start = new int[0];
+  int[] items = new int[0];
+  int[] seen = new int[16];
+
+  void build(float[] x, float[] y, int n, float cell) {
+    this.x = x;
+    this.y = y;
+    this.n = n;
+    this.cell = cell;
+    int b = Integer.highestOneBit(Math.max(1, n - 1) * 2);
+    mask = b - 1;
+    if (start.length < b + 1)
+      start = new int[b + 1];
+    else
+      Arrays.fill(start, 0, b + 1, 0);
+    if (items.length < n)
+      items = new int[n];
+    for (int j = 0; j < n; j++)
+      start[bucket(j) + 1]++;
+    for (int k = 0; k < b; k++)
+      start[k + 1] += start[k];
+    /* start[k] moves to the end of bucket k while filling, then back */
+    for (int j = 0; j < n; j++)
+      items[start[bucket(j)]++] = j;
+    for (int k = b; k > 0; k--)
+      start[k] = start[k - 1];
+    start[0] = 0;
+  }
+
+  int cell(float v) {
+    return (int) Math.floor(v / cell);
+  }
+
+  int bucket(int j) {
+    return bucket(cell(x[j]), cell(y[j]));
+  }
+
+  int bucket(int cx, int cy) {
+    return DLLongMap.hash(((long) cx << 32) | (cy & 0xffffffffL)) & mask;
+  }
+
+  void visit(int b, Visitor v) {
+    for (int k = start[b]; k < start[b + 1]; k++)
+      v.visit(items[k]);
+  }
+
+  void near(float px, float py, float r, Visitor v) {
+    if (n == 0)
+      return;
+    int x0 = cell(px - r), x1 = cell(px + r);
+    int y0 = cell(py - r), y1 = cell(py + r);
+    long cells = (long) (x1 - x0 + 1) * (y1 - y0 + 1);
+    if (cells > mask + 1) {
+      for (int j = 0; j < n; j++)
+        v.visit(j);
+      return;
+    }
+    if (seen.length < cells)
+      seen = new int[(int) cells];
+    int s = 0;
+    for (int cy = y0; cy <= y1; cy++)
+      cells: for (int cx = x0; cx <= x1; cx++) {
+        int b = bucket(cx, cy);
+        /* two cells of the query may share a bucket */
+        for (int k = 0; k < s; k++)
+          if (seen[k] == b)
+            continue cells;
+        seen[s++] = b;
+        visit(b, v);
+      }
+  }
+
+  /*
+   * Visits the cells k cells away from the cell of px, py, the ring of a
+   * nearest point search: after rings 0 to k every point left is at least
+   * reach(px, py, k) away on x or y. Buckets may be seen more than once.
+   * Returns false when the ring covers more buckets than there are, the
+   * caller should then visit all the points.
+   */
+  boolean ring(float px, float py, int k, Visitor v) {
+    if ((long) 8 * k > mask + 1)
+      return false;
+    int cx = cell(px), cy = cell(py);
+    if (k == 0) {
+      visit(bucket(cx, cy), v);
+      return true;
+    }
+    for (int i = -k; i <= k; i++) {
+      visit(bucket(cx + i, cy - k), v);
+      visit(bucket(cx + i, cy + k), v);
+    }
+    for (int i = -k + 1; i < k; i++) {
+      visit(bucket(cx - k, cy + i), v);
+      visit(bucket(cx + k, cy + i), v);
+    }
+    return true;
+  }
+
+  /*
+   * Distance from px, py to the outside of the rings 0 to k.
+   */
+  float reach(float px, float py, int k) {
+    float x0 = (cell(px) - k) * cell, y0 = (cell(py) - k) * cell;
+    float s = (2 * k + 1) * cell;
+    return Math.min(Math.min(px - x0, x0 + s - px), Math.min(py - y0, y0 + s - py));
+  }
+}
@@ -0,0 +1,418 @@
+package com.mdu.DrawLine;
+
+/*
+ * Hashlife. The plane is a quadtree of canonical nodes: two nodes with the
+ * same four children are the same object, so repeated regions are stored
+ * once, and the future of every node is memoized. The successor of a node of
+ * level L (2^L cells wide) is its center of level L - 1 advanced up to
+ * 2^(L - 2) generations, built from the successors of its nine overlapping
+ * subnodes. A step advances 2^jump generations.
+ *
+ * The universe is unbounded: the root grows to hold the pattern and its
+ * future, coordinates are centered on 0, 0 and toric mode does not apply.
+ * The engine width and height are a viewport on the plane, with cell 0, 0 of
+ * the viewport at vx, vy, but cells outside it can be read and set too.
+ *
+ * Nodes live in a hash table bounded by limit. When it is full before a step,
+ * the table is rebuilt from the nodes reachable from the root and memoized
+ * results are dropped.
+ */
+class DLHashLife implements DLLifeEngine {
+  static final int MAX_LEVEL = 60;
+
+  static final class Node {
+    final Node nw, ne, sw, se;
+    final int level;
+    final long pop;
+    final int id;
+    final int bits;
+    Node chain;
+    Node result;
+    int resultStep = -1;
+
+    Node(int id, int bits) {
+      this.id = id;
+      this.bits = bits;
+      nw = ne = sw = se = null;
+      level = 0;
+      pop = bits;
+    }
+
+    Node(int id, Node nw, Node ne, Node sw, Node se) {
+      this.id = id;
+      this.nw = nw;
+      this.ne = ne;
+      this.sw = sw;
+      this.se = se;
+      level = nw.level + 1;
+      pop = nw.pop + ne.pop + sw.pop + se.pop;
+      bits = level == 1 ? nw.bits | ne.bits << 1 | sw.bits << 2 | se.bits << 3 : 0;
+    }
+  }
+
+  /*
+   * Center 2x2 of a 4x4 block, one generation later. Cell x, y of the block is
+   * bit y * 4 + x, cell x, y of the result bit y * 2 + x.
+   */
+  static final byte[] RULE = new byte[1 << 16];
+
+  static {
+    for (int b = 0; b < RULE.length; b++) {
+      int r = 0;
+      for (int y = 1; y <= 2; y++)
+        for (int x = 1; x <= 2; x++) {
+          int n = 0;
+          for (int j = -1; j <= 1; j++)
+            for (int i = -1; i <= 1; i++)
+              if ((i != 0 || j != 0) && (b >> (y + j) * 4 + x + i & 1) != 0)
+                n++;
+          boolean alive = (b >> y * 4 + x & 1) != 0;
+          if (n == 3 || alive && n == 2)
+            r |= 1 << (y - 1) * 2 + x - 1;
+        }
+      RULE[b] = (byte) r;
+    }
+  }
+
+  final int width;
+  final int height;
+  long vx;
+  long vy;
+  int jump;
+  long generation;
+  final int limit;
+
+  int ids;
+  final Node[] leaves = new Node[2];
+  final Node[] quads = new Node[16];
+  final Node[] empty = new Node[MAX_LEVEL + 1];
+  Node[] table;
+  int count;
+  Node root;
+
+  DLHashLife(int width, int height) {
+    this(width, height, Limit());
+  }
+
+  DLHashLife(int width, int height, int limit) {
+    this.width = width;
+    this.height = height;
+    this.limit = limit;
+    vx = -(width / 2);
+    vy = -(height / 2);
+    leaves[0] = new Node(ids++, 0);
+    leaves[1] = new Node(ids++, 1);
+    for (int b = 0; b < 16; b++)
+      quads[b] = new Node(ids++, leaves[b & 1], leaves[b >> 1 & 1], leaves[b >> 2 & 1], leaves[b >> 3 & 1]);
+    table = new Node[1 << 16];
+    empty[0] = leaves[0];
+    empty[1] = quads[0];
+    for (int l = 2; l <= MAX_LEVEL; l++)
+      empty[l] = node(empty[l - 1], empty[l - 1], empty[l - 1], empty[l - 1]);
+    root = empty[3];
+  }
+
+  /*
+   * Nodes that fit in a quarter of the heap.
+   */
+  static int Limit() {
+    return (int) Math.min(1 << 26, Runtime.getRuntime().maxMemory() / 4 / 80);
+  }
+
+  public int width() {
+    return width;
+  }
+
+  public int height() {
+    return height;
+  }
+
+  public void setToric(boolean toric) {
+  }
+
+  public void setView(long x, long y) {
+    vx = x;
+    vy = y;
+  }
+
+  /* canonical nodes */
+
+  static int hash(Node nw, Node ne, Node sw, Node se) {
+    int h = nw.id;
+    h = h * 0x9E3779B1 + ne.id;
+    h = h * 0x9E3779B1 + sw.id;
+    h = h * 0x9E3779B1 + se.id;
+    return h ^ h >>> 15;
+  }
+
+  Node node(Node nw, Node ne, Node sw, Node se) {
+    if (nw.level == 0)
+      return quads[nw.bits | ne.bits << 1 | sw.bits << 2 | se.bits << 3];
+    int i = hash(nw, ne, sw, se) & table.length - 1;
+    for (Node n = table[i]; n != null; n = n.chain)
+      if (n.nw == nw && n.ne == ne && n.sw == sw && n.se == se)
+        return n;
+    Node n = new Node(ids++, nw, ne, sw, se);
+    n.chain = table[i];
+    table[i] = n;
+    if (++count > table.length * 3 / 4)
+      rehash(table.length * 2);
+    return n;
+  }
+
+  void rehash(int size) {
+    Node[] o = table;
+    table = new Node[size];
+    for (Node h : o)
+      for (Node n = h, c; n != null; n = c) {
+        c = n.chain;
+        int i = hash(n.nw, n.ne, n.sw, n.se) & size - 1;
+        n.chain = table[i];
+        table[i] = n;
+      }
+  }
+
+  /*
+   * Keeps the nodes reachable from the root and the empty nodes, forgets the
+   * memoized results.
+   */
+  void gc() {
+    Node[] o = table;
+    table = new Node[o.length];
+    count = 0;
+    for (Node h : o)
+      for (Node n = h; n != null; n = n.chain) {
+        n.result = null;
+        n.resultStep = -1;
+      }
+    for (int l = 2; l <= MAX_LEVEL; l++)
+      keep(empty[l]);
+    keep(root);
+  }
+
+  void keep(Node n) {
+    if (n.level < 2)
+      return;
+    int i = hash(n.nw, n.ne, n.sw, n.se) & table.length - 1;
+    for (Node c = table[i]; c != null; c = c.chain)
+      if (c == n)
+        return;
+    n.chain = table[i];
+    table[i] = n;
+    count++;
+    keep(n.nw);
+    keep(n.ne);
+    keep(n.sw);
+    keep(n.se);
+  }
+
+  /* evolution */
+
+  Node center(Node n) {
+    return node(n.nw.se, n.ne.sw, n.sw.ne, n.se.nw);
+  }
+
+  Node horizontal(Node w, Node e) {
+    return node(w.ne, e.nw, w.se, e.sw);
+  }
+
+  Node vertical(Node n, Node s) {
+    return node(n.sw, n.se, s.nw, s.ne);
+  }
+
+  /*
+   * Center of n, level n.level - 1, 2^j generations later, j <= n.level - 2.
+   */
+  Node successor(Node n, int j) {
+    if (n.pop == 0)
+      return empty[n.level - 1];
+    if (n.result != null && n.resultStep == j)
+      return n.result;
+    Node r;
+    if (n.level == 2) {
+      int b = Spread(n.nw.bits) | Spread(n.ne.bits) << 2 | Spread(n.sw.bits) << 8 | Spread(n.se.bits) << 10;
+      r = quads[RULE[b]];
+    } else {
+      Node n00 = n.nw, n01 = horizontal(n.nw, n.ne), n02 = n.ne;
+      Node n10 = vertical(n.nw, n.sw), n11 = center(n), n12 = vertical(n.ne, n.se);
+      Node n20 = n.sw, n21 = horizontal(n.sw, n.se), n22 = n.se;
+      boolean full = j == n.level - 2;
+      int k = full ? j - 1 : j;
+      Node r00 = full ? successor(n00, k) : center(n00);
+      Node r01 = full ? successor(n01, k) : center(n01);
+      Node r02 = full ? successor(n02, k) : center(n02);
+      Node r10 = full ? successor(n10, k) : center(n10);
+      Node r11 = full ? successor(n11, k) : center(n11);
+      Node r12 = full ? successor(n12, k) : center(n12);
+      Node r20 = full ? successor(n20, k) : center(n20);
+      Node r21 = full ? successor(n21, k) : center(n21);
+      Node r22 = full ? successor(n22, k) : center(n22);
+      r = node(successor(node(r00, r01, r10, r11), k), successor(node(r01, r02, r11, r12), k),
+          successor(node(r10, r11, r20, r21), k), successor(node(r11, r12, r21, r22), k));
+    }
+    n.result = r;
+    n.resultStep = j;
+    return r;
+  }
+
+  /*
+   * Bits of a level 1 node, nw ne sw se, at their place in a 4x4 block. The
+   * RULE results are already in that order.
+   */
+  static int Spread(int b) {
+    return b & 3 | (b & 12) << 2;
+  }
+
+  Node grow(Node n) {
+    Node e = empty[n.level - 1];
+    return node(node(e, e, e, n.nw), node(e, e, n.ne, e), node(e, n.sw, e, e), node(n.se, e, e, e));
+  }
+
+  /*
+   * True when all the cells of n are in its innermost quarter.
+   */
+  static boolean inner(Node n) {
+    return n.nw.se.se.pop + n.ne.sw.sw.pop + n.sw.ne.ne.pop + n.se.nw.nw.pop == n.pop;
+  }
+
+  public void step() {
+    if (count > limit)
+      gc();
+    int j = Math.max(0, Math.min(jump, MAX_LEVEL - 4));
+    while (root.level < j + 3 || !inner(root))
+      root = grow(root);
+    root = successor(root, j);
+    generation += 1L << j;
+  }
+
+  /* cells */
+
+  long half() {
+    return 1L << root.level - 1;
+  }
+
+  boolean contains(long x, long y) {
+    long h = half();
+    return x >= -h && x < h && y >= -h && y < h;
+  }
+
+  public boolean get(int x, int y) {
+    return cell(vx + x, vy + y);
+  }
+
+  public void set(int x, int y, boolean v) {
+    cell(vx + x, vy + y, v);
+  }
+
+  boolean cell(long x, long y) {
+    if (!contains(x, y))
+      return false;
+    long h = half();
+    x += h;
+    y += h;
+    Node n = root;
+    while (n.level > 0) {
+      if (n.pop == 0)
+        return false;
+      int s = n.level - 1;
+      boolean e = (x >> s & 1) != 0;
+      boolean so = (y >> s & 1) != 0;
+      n = so ? (e ? n.se : n.sw) : (e ? n.ne : n.nw);
+    }
+    return n.bits != 0;
+  }
+
+  void cell(long x, long y, boolean v) {
+    while (!contains(x, y) && root.level < MAX_LEVEL)
+      root = grow(root);
+    if (!contains(x, y))
+      return;
+    long h = half();
+    root = set(root, x + h, y + h, v);
+  }
+
+  Node set(Node n, long x, long y, boolean v) {
+    if (n.level == 0)
+      return leaves[v ? 1 : 0];
+    int s = n.level - 1;
+    boolean e = (x >> s & 1) != 0;
+    boolean so = (y >> s & 1) != 0;
+    if (so) {
+      if (e)
+        return node(n.nw, n.ne, n.sw, set(n.se, x, y, v));
+      return node(n.nw, n.ne, set(n.sw, x, y, v), n.se);
+    }
+    if (e)
+      return node(n.nw, set(n.ne, x, y, v), n.sw, n.se);
+    return node(set(n.nw, x, y, v), n.ne, n.sw, n.se);
+  }
+
+  public void clear() {
+    root = empty[3];
+    generation = 0;
+  }
+
+  /*
+   * Replaces the universe by a random viewport, built bottom up.
+   */
+  public void random(float ratio) {
+    int l = 3;
+    while (l < MAX_LEVEL && !(Fits(vx, l) && Fits(vx + width - 1, l) && Fits(vy, l) && Fits(vy + height - 1, l)))
+      l++;
+    long h = 1L << l - 1;
+    root = build(l, -h, -h, ratio);
+    generation = 0;
+  }
+
+  static boolean Fits(long c, int level) {
+    long h = 1L << level - 1;
+    return c >= -h && c < h;
+  }
+
+  Node build(int level, long x, long y, float ratio) {
+    long s = 1L << level;
+    if (x + s <= vx || y + s <= vy || x >= vx + width || y >= vy + height)
+      return empty[level];
+    if (level == 0)
+      return leaves[DLUtil.random.nextFloat() < ratio ? 1 : 0];
+    long h = s >> 1;
+    return node(build(level - 1, x, y, ratio), build(level - 1, x + h, y, ratio), build(level - 1, x, y + h, ratio),
+        build(level - 1, x + h, y + h, ratio));
+  }
+
+  long population() {
+    return root.pop;
+  }
+
+  /*
+   * Bounding box of the live cells, { minx, miny, maxx, maxy }, or null.
+   */
+  public long[] bounds() {
+    if (root.pop == 0)
+      return null;
+    long h = half();
+    long[] b = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE };
+    bounds(root, -h, -h, b);
+    return b;
+  }
+
+  void bounds(Node n, long x, long y, long[] b) {
+    if (n.pop == 0)
+      return;
+    long s = 1L << n.level;
+    if (x >= b[0] && y >= b[1] && x + s - 1 <= b[2] && y + s - 1 <= b[3])
+      return;
+    if (n.level == 0) {
+      b[0] = Math.min(b[0], x);
+      b[1] = Math.min(b[1], y);
+      b[2] = Math.max(b[2], x);
+      b[3] = Math.max(b[3], y);
+      return;
+    }
+    long h = s >> 1;
+    bounds(n.nw, x, y, b);
+    bounds(n.ne, x + h, y, b);
+    bounds(n.sw, x, y + h, b);
+    bounds(n.se, x + h, y + h, b);
+  }
+}
@@ -28,7 +28,9 @@ import javax.swing.Timer;
 abstract class DLImage extends DLComponent implements Threaded, JPG {
   ArrayList<DLThread> threads = new ArrayList<DLThread>();
   boolean threaded = true;
+  boolean scheduled = true;
   BufferedImage image = null;
+  DLFrameRing frames = null;
   int iheight;
   int iwidth;
   boolean selectCheckTransparentPixel = false;
@@ -48,6 +50,7 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
 //  String filterName = NullFilter;
   BufferedImageOp filter = null ; //getFilterFromString(filterName);
   int res = 1;
+  boolean adaptive = true;
   boolean clear = true;
   float filterStrength = 0f;
   
@@ -78,6 +81,7 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
   }
 
   void clear() {
+    frames = null;
     clearImage();
     clearShadow();
   }
@@ -152,7 +156,7 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
       py = 0;
     if (py >= iheight)
       py = iheight - 1;
-    final int pix = image.getRGB((int) px, (int) py);
+    final int pix = display().getRGB((int) px, (int) py);
     if ((pix & 0xff000000) == 0)
       return false;
     return true;
@@ -195,12 +199,13 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
     if (image == null)
       image = image();
 
-    applyFilter();
+    if (frames == null)
+      applyFilter();
     
     if (deco)
       shadow(g);
 
-    g.drawImage(image, (int) (x - iwidth / 2f), (int) (y - iheight / 2f), null);    
+    g.drawImage(display(), (int) (x - iwidth / 2f), (int) (y - iheight / 2f), null);    
     
     after(g);
     
@@ -291,6 +296,31 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
     y = (float) dst.getY();
   }
 
+  /*
+   * Name of the int property DLQuality may raise to keep the frame budget,
+   * larger being cheaper. null when the component has none.
+   */
+  String quality() {
+    return null;
+  }
+
+  public boolean getAdaptive() {
+    return adaptive;
+  }
+
+  public void setAdaptive(boolean a) {
+    adaptive = a;
+  }
+
+  @Override
+  boolean isAnimated() {
+    if (!threaded)
+      return false;
+    synchronized (threads) {
+      return !threads.isEmpty();
+    }
+  }
+
   public boolean isThreaded() {
     return threaded;
   }
@@ -350,6 +380,55 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
 
   }
 
+  void tick(Graphics2D g) {
+    if (clear)
+      clearImage();
+
+    long start = System.nanoTime();
+    long bytes = DLMetrics.allocated();
+    step(g);
+    metrics.allocated.add(DLMetrics.allocated() - bytes);
+    metrics.step.record(System.nanoTime() - start);
+
+    publish();
+
+    if (parent != null)
+      parent.paint(this);
+  }
+
+  BufferedImage display() {
+    DLFrameRing r = frames;
+    if (r != null)
+      return r.front();
+    return image;
+  }
+
+  DLFrameRing frames() {
+    DLFrameRing r = frames;
+    if (r == null || !r.fits(image)) {
+      r = new DLFrameRing(image.getWidth(), image.getHeight(), image.getType());
+      frames = r;
+    }
+    return r;
+  }
+
+  void publish() {
+    if (image == null)
+      return;
+    applyFilter();
+    DLFrameRing r = frames();
+    r.copy(image);
+    r.swap();
+  }
+
+  void publish(int[] pixels) {
+    if (image == null)
+      return;
+    DLFrameRing r = frames();
+    applyFilter(r.copy(pixels));
+    r.swap();
+  }
+
   public void f(Graphics2D g, DLThread t) {
     
     setup();
@@ -358,13 +437,7 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
       if (t != null && t.isStopped())
         break;
 
-      if (clear)
-        clearImage();
-      
-      step(g);
-
-      if (parent != null)
-        parent.paint(this);
+      tick(g);
 
       if (threadSleep > 0) {
         try {
@@ -376,7 +449,33 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
     }
   }
 
+  boolean isScheduled() {
+    if (!scheduled)
+      return false;
+    try {
+      Method m = getClass().getMethod("f", Graphics2D.class, DLThread.class);
+      return m.getDeclaringClass() == DLImage.class;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  void unschedule(DLThread t) {
+    synchronized (threads) {
+      threads.remove(t);
+    }
+  }
+
   public void runThreaded(final Graphics2D g) {
+    if (isScheduled()) {
+      DLThread t = new DLThread();
+      stopAll();
+      synchronized (threads) {
+        threads.add(t);
+      }
+      DLScheduler.getScheduler().schedule(this, g, t);
+      return;
+    }
     DLRunnable run = new DLRunnable() {
       DLThread t;
 
@@ -405,7 +504,7 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
   }
 
   public void saveAsJPG(File f) {
-    DLUtil.Save(image, f);
+    DLUtil.Save(display(), f);
   }
 
  void prepareForDisplay() {
@@ -499,17 +598,23 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
   }
 
   void applyFilter() {
+    applyFilter(image);
+  }
+
+  void applyFilter(BufferedImage img) {
     if (filter == null)
       return;
     if (filterStrength <= 0.001f)
       return;
-    BufferedImage bi = new BufferedImage(image.getWidth(), image.getHeight(), image.getType());
+    long start = System.nanoTime();
+    BufferedImage bi = new BufferedImage(img.getWidth(), img.getHeight(), img.getType());
     try {
-      filter.filter(image, bi);
+      filter.filter(img, bi);
     } catch (Exception e) {
       DLError.report(e);
     }
-    DLUtil.Merge(image, bi, filterStrength, image);
+    DLUtil.Merge(img, bi, filterStrength, img);
+    metrics.filter.record(System.nanoTime() - start);
   }
 
   public void setThreadSleep(int s) {
@@ -530,8 +635,8 @@ abstract class DLImage extends DLComponent implements Threaded, JPG {
       return null;
 
     AffineTransform tx = new AffineTransform();
-    float sx = dst.getWidth() / src.getWidth();
-    float sy = dst.getHeight() / src.getHeight();
+    float sx = (float) dst.getWidth() / src.getWidth();
+    float sy = (float) dst.getHeight() / src.getHeight();
     tx.scale(sx, sy);
     AffineTransformOp op = new AffineTransformOp(tx, AffineTransformOp.TYPE_BICUBIC);
     op.filter(src, dst);
@@ -0,0 +1,97 @@
+package com.mdu.DrawLine;
+
+/*
+ * Julia sets of z -> z^power + c, on the DLEscapeTime engine.
+ */
+public class DLJulia extends DLEscapeTime {
+  static final double[][] SEEDS = { { -0.8, 0.156 }, { -0.4, 0.6 }, { 0.285, 0.01 }, { -0.70176, -0.3842 },
+      { -0.835, -0.2321 }, { 0.355, 0.355 } };
+
+  double cr = SEEDS[0][0];
+  double ci = SEEDS[0][1];
+
+  DLJulia() {
+    super();
+    bounds();
+  }
+
+  DLJulia(DLJulia src) {
+    this();
+    cr = src.cr;
+    ci = src.ci;
+    power = src.power;
+  }
+
+  public DLJulia(float x, float y) {
+    super(x, y);
+    bounds();
+  }
+
+  void bounds() {
+    xMin = -1.6;
+    xMax = 1.6;
+    yMin = -1.6;
+    yMax = 1.6;
+  }
+
+  DLJulia copy() {
+    return new DLJulia(this);
+  }
+
+  double[] seed() {
+    return new double[] { cr, ci };
+  }
+
+  /*
+   * Values depend on c, earlier ones stay cached under the old generation.
+   */
+  void setC(double cr, double ci) {
+    this.cr = cr;
+    this.ci = ci;
+    generation++;
+    stopAll();
+    runThreaded();
+  }
+
+  public double getCr() {
+    return cr;
+  }
+
+  public void setCr(double cr) {
+    setC(cr, ci);
+  }
+
+  public double[] rangeCr() {
+    return new double[] { -2, 2 };
+  }
+
+  public double getCi() {
+    return ci;
+  }
+
+  public void setCi(double ci) {
+    setC(cr, ci);
+  }
+
+  public double[] rangeCi() {
+    return new double[] { -2, 2 };
+  }
+
+  public void randomize() {
+    iwidth = DLUtil.RangeRandom(300, 400);
+    iheight = iwidth;
+    double[] c = SEEDS[DLUtil.RangeRandom(0, SEEDS.length)];
+    cr = c[0];
+    ci = c[1];
+  }
+
+  public static void main(String[] a) {
+    int s = 300;
+    int w = DLUtil.RangeRandom(s, s * 2);
+    int h = w;
+
+    Object[][] params = { { "iwidth", w }, { "iheight", h }, { "x", w / 2 }, { "y", h / 2 }, { "threadSleep", 5 } };
+
+    DLMain.Main(DLJulia.class, params);
+  }
+}
@@ -0,0 +1,140 @@
+package com.mdu.DrawLine;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+/*
+ * Static layer of a DLContainer, cut in tiles. A tile bakes the background
+ * and every non animated component lying below the first animated component
+ * of that tile, in z-order. Composing a region blits the tiles and only
+ * paints the components that were not baked. Tiles are dropped when the
+ * region they cover is invalidated or when the z-order changes.
+ */
+class DLLayerCache {
+  static final int TILE = 256;
+
+  final PaintControl control;
+  final HashMap<Long, Tile> tiles = new HashMap<Long, Tile>();
+  boolean enabled = true;
+  int version = -1;
+  Color background;
+  long stamp = 0;
+
+  DLLayerCache(PaintControl control) {
+    this.control = control;
+  }
+
+  static class Tile {
+    BufferedImage image;
+    IdentityHashMap<DLComponent, Boolean> baked = new IdentityHashMap<DLComponent, Boolean>();
+  }
+
+  static long key(int tx, int ty) {
+    return ((long) tx << 32) | (ty & 0xffffffffL);
+  }
+
+  synchronized void invalidate(Rectangle r) {
+    if (r == null)
+      return;
+    stamp++;
+    int x0 = Math.floorDiv(r.x, TILE);
+    int y0 = Math.floorDiv(r.y, TILE);
+    int x1 = Math.floorDiv(r.x + r.width, TILE);
+    int y1 = Math.floorDiv(r.y + r.height, TILE);
+    for (int tx = x0; tx <= x1; tx++)
+      for (int ty = y0; ty <= y1; ty++)
+        tiles.remove(key(tx, ty));
+  }
+
+  synchronized void invalidate() {
+    stamp++;
+    tiles.clear();
+  }
+
+  synchronized Tile get(long k) {
+    return tiles.get(k);
+  }
+
+  synchronized void put(long k, Tile t, long s) {
+    if (s == stamp)
+      tiles.put(k, t);
+  }
+
+  synchronized long stamp() {
+    return stamp;
+  }
+
+  void check() {
+    DLContainer dl = control.dl;
+    int v = dl.components.version();
+    Color b = dl.getBackground();
+    if (v != version || (b != null && !b.equals(background))) {
+      invalidate();
+      version = v;
+      background = b;
+    }
+  }
+
+  Tile render(int tx, int ty) {
+    DLContainer dl = control.dl;
+    Rectangle tr = new Rectangle(tx * TILE, ty * TILE, TILE, TILE);
+    Tile t = new Tile();
+    t.image = new BufferedImage(TILE, TILE, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = t.image.createGraphics();
+    DLUtil.SetHints(g);
+    g.setColor(dl.getBackground());
+    g.fillRect(0, 0, TILE, TILE);
+    g.translate(-tr.x, -tr.y);
+    final Iterator<DLComponent> i = dl.query(tr).iterator();
+    while (i.hasNext()) {
+      final DLComponent dlc = i.next();
+      if (dlc.isAnimated())
+        break;
+      PaintControl.draw(dlc, g);
+      t.baked.put(dlc, Boolean.TRUE);
+    }
+    g.dispose();
+    return t;
+  }
+
+  void compose(Graphics2D gi, Rectangle r) {
+    check();
+    int x0 = Math.floorDiv(r.x, TILE);
+    int y0 = Math.floorDiv(r.y, TILE);
+    int x1 = Math.floorDiv(r.x + r.width - 1, TILE);
+    int y1 = Math.floorDiv(r.y + r.height - 1, TILE);
+    Shape clip = gi.getClip();
+    for (int tx = x0; tx <= x1; tx++)
+      for (int ty = y0; ty <= y1; ty++) {
+        Rectangle c = new Rectangle(tx * TILE, ty * TILE, TILE, TILE).intersection(r);
+        if (c.isEmpty())
+          continue;
+        long k = key(tx, ty);
+        Tile t = get(k);
+        DLComponentList hits = control.dl.query(c);
+        if (t != null)
+          for (DLComponent dlc : hits)
+            if (dlc.isAnimated() && t.baked.containsKey(dlc)) {
+              t = null;
+              break;
+            }
+        if (t == null) {
+          long s = stamp();
+          t = render(tx, ty);
+          put(k, t, s);
+        }
+        gi.setClip(c);
+        gi.drawImage(t.image, tx * TILE, ty * TILE, null);
+        for (DLComponent dlc : hits)
+          if (!t.baked.containsKey(dlc))
+            PaintControl.draw(dlc, gi);
+      }
+    gi.setClip(clip);
+  }
+}
@@ -8,6 +8,9 @@ import java.awt.Graphics2D;
 import java.awt.Shape;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Objects;
 import java.lang.reflect.Array;
 
 import com.jhlabs.image.EdgeFilter;
@@ -17,8 +20,6 @@ public class DLLife extends DLImage {
   int threadSleep = 100;
   int lwidth = 50;
   int lheight = 50;
-  boolean lifeBoard[][] = new boolean[lwidth][lheight];
-  boolean newLife[][] = new boolean[lwidth][lheight];
   float initLifeRatio = 0.5f;
   boolean run = true;
 
@@ -36,6 +37,36 @@ public class DLLife extends DLImage {
   static final String NORMAL = "normal";
   String mode = TORIC;
 
+  /*
+   * cells keeps one boolean per cell, bits packs 64 cells per long and steps
+   * them together, see DLLifeBits. sparse and hash are unbounded planes,
+   * lwidth x lheight is then a viewport centered on viewX, viewY. sparse only
+   * computes the blocks around last generation's changes, hash is Hashlife
+   * and a step advances 2^jump generations.
+   */
+  static final String CELLS = "cells";
+  static final String BITS = "bits";
+  static final String SPARSE = "sparse";
+  static final String HASH = "hash";
+  String engine = BITS;
+  int jump = 0;
+  int viewX = 0;
+  int viewY = 0;
+  DLLifeEngine life = engine();
+  String built = engine;
+
+  /*
+   * Frames are painted in the int raster then published. Up to RASTER
+   * pixels per cell each pixel gets the color of its cell, above that cells
+   * are copied from Sprites. With parallel, bands of rows are stepped and
+   * painted on the common fork join pool.
+   */
+  static final float RASTER = 2;
+  int[] raster;
+  Sprites liveSprites;
+  Sprites deadSprites;
+  boolean parallel = true;
+
   Color liveColor = DLUtil.DarkerColor(Color.orange, 0.5f);
   Color liveStroke = Color.darkGray;
   Color deadColor = Color.darkGray;
@@ -43,8 +74,21 @@ public class DLLife extends DLImage {
 
   static final String INIT_RANDOM = "initRandom";
   static final String INIT_BLINKER = "initBlinker";
+  static final String INIT_GUN = "gliderGun";
+  static final String INIT_ACORN = "acorn";
+  static final String INIT_R_PENTOMINO = "rPentomino";
+  static final String INIT_SWITCH_ENGINES = "switchEngines";
+
+  static final String GUN = "24bo$22bobo$12b2o6b2o12b2o$11bo3bo4b2o12b2o$2o8bo5bo3b2o$2o8bo3bob2o4bobo$10bo5bo7bo$11bo3bo$12b2o!";
+  static final String ACORN = "bo$3bo$2o2b3o!";
+  static final String R_PENTOMINO = "b2o$2o$bo!";
+  /* one cell high, grows forever */
+  static final String SWITCH_ENGINES = "8ob5o3b3o6b7ob5o!";
+
+  String patternFile;
 
   String initPattern = INIT_RANDOM;
+  String inited;
 
   public Color getLiveColor() {
     return liveColor;
@@ -84,6 +128,7 @@ public class DLLife extends DLImage {
 
   public void setMode(String mode) {
     this.mode = mode;
+    life.setToric(TORIC.equals(mode));
   }
 
   public String[] enumMode() {
@@ -92,6 +137,150 @@ public class DLLife extends DLImage {
     };
   }
 
+  public String getEngine() {
+    return engine;
+  }
+
+  public void setEngine(String engine) {
+    if (this.engine.equals(engine))
+      return;
+    this.engine = engine;
+    rebuild();
+  }
+
+  public String[] enumEngine() {
+    return new String[] {
+        CELLS, BITS, SPARSE, HASH
+    };
+  }
+
+  DLLifeEngine engine() {
+    boolean toric = TORIC.equals(mode);
+    DLLifeEngine l;
+    switch (engine) {
+    case CELLS:
+      return new DLLifeCells(lwidth, lheight, toric);
+    case SPARSE:
+      l = new DLLifeSparse(lwidth, lheight);
+      break;
+    case HASH:
+      l = new DLHashLife(lwidth, lheight);
+      break;
+    default:
+      return new DLLifeBits(lwidth, lheight, toric);
+    }
+    view(l);
+    return l;
+  }
+
+  void view(DLLifeEngine l) {
+    l.setView((long) viewX - lwidth / 2, (long) viewY - lheight / 2);
+    if (l instanceof DLHashLife)
+      ((DLHashLife) l).jump = jump;
+  }
+
+  public int getJump() {
+    return jump;
+  }
+
+  public void setJump(int jump) {
+    this.jump = jump;
+  }
+
+  public int[] rangeJump() {
+    return new int[] {
+        0, 40
+    };
+  }
+
+  public int getViewX() {
+    return viewX;
+  }
+
+  public void setViewX(int viewX) {
+    this.viewX = viewX;
+  }
+
+  public int[] rangeViewX() {
+    return new int[] {
+        -100000, 100000
+    };
+  }
+
+  public int getViewY() {
+    return viewY;
+  }
+
+  public void setViewY(int viewY) {
+    this.viewY = viewY;
+  }
+
+  public int[] rangeViewY() {
+    return new int[] {
+        -100000, 100000
+    };
+  }
+
+  Push center = new Push("Center the view on the pattern");
+
+  public Push getCenter() {
+    return center;
+  }
+
+  public void setCenter(Push p) {
+    long[] b;
+    synchronized (this) {
+      b = life.bounds();
+    }
+    if (b == null)
+      return;
+    viewX = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, (b[0] + b[2]) / 2));
+    viewY = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, (b[1] + b[3]) / 2));
+    if (sheet != null) {
+      sheet.update("ViewX", viewX);
+      sheet.update("ViewY", viewY);
+    }
+  }
+
+  public String getPatternFile() {
+    return patternFile;
+  }
+
+  /*
+   * Loads an RLE pattern in the middle of the board. Typed names that are
+   * not files yet are ignored.
+   */
+  public void setPatternFile(String f) {
+    patternFile = f;
+    if (f == null || !new File(f).isFile())
+      return;
+    try {
+      DLLifeRLE p = DLLifeRLE.Load(f);
+      synchronized (this) {
+        clear();
+        p.center(life);
+      }
+    } catch (IOException e) {
+      DLError.report(e);
+    }
+  }
+
+  /*
+   * New universe after a change of size or engine, the old cells are kept.
+   */
+  synchronized void rebuild() {
+    DLLifeEngine o = life;
+    DLLifeEngine l = engine();
+    int w = Math.min(o.width(), l.width());
+    int h = Math.min(o.height(), l.height());
+    for (int y = 0; y < h; y++)
+      for (int x = 0; x < w; x++)
+        if (o.get(x, y))
+          l.set(x, y, true);
+    life = l;
+    built = engine;
+  }
+
   public String getLiveCellRenderer() {
     return liveCellRenderer;
   }
@@ -122,7 +311,7 @@ public class DLLife extends DLImage {
 
   public DLLife() {
     super();
-    initRandom();
+    init();
   }
 
   DLLife(DLLife src) {
@@ -131,7 +320,7 @@ public class DLLife extends DLImage {
 
   public DLLife(float x, float y) {
     super(x, y);
-    initRandom();
+    init();
   }
 
   DLLife copy() {
@@ -163,12 +352,13 @@ public class DLLife extends DLImage {
     if (this.lwidth == lwidth)
       return;
     this.lwidth = lwidth;
-    initRandom();
+    life = engine();
+    init();
   }
 
   public int[] rangeLwidth() {
     return new int[] {
-        1, 200
+        1, 20000
     };
   }
 
@@ -180,12 +370,13 @@ public class DLLife extends DLImage {
     if (this.lheight == lheight)
       return;
     this.lheight = lheight;
-    initRandom();
+    life = engine();
+    init();
   }
 
   public int[] rangeLheight() {
     return new int[] {
-        1, 200
+        1, 20000
     };
   }
 
@@ -195,16 +386,17 @@ public class DLLife extends DLImage {
 
   void step(Graphics2D g, long dt) {
 
-    synchronized (lifeBoard) {
+    int[] p;
+    synchronized (this) {
       s();
 
-      clearImage();
-
-      paint(g, dt);
-      
-      if (parent != null)
-        parent.paint(this);
+      p = cellSize() <= RASTER ? paintRaster() : paintSprites();
     }
+
+    publish(p);
+
+    if (parent != null)
+      parent.paint(this);
   }
 
   public void f(Graphics2D g, DLThread t) {
@@ -249,97 +441,11 @@ public class DLLife extends DLImage {
   }
 
   int neighbours(int i, int j) {
-    switch (mode) {
-    case TORIC:
-      return neighboursToric(i, j);
-    case NORMAL:
-      return neighboursNormal(i, j);
-    }
-    throw new IllegalArgumentException();
+    return life.neighbours(i, j);
   }
 
-  int neighboursToric(int i, int j) {
-    // toric mode
-
-    int mi = i - 1;
-    if (mi < 0)
-      mi = lwidth - 1;
-
-    int pi = i + 1;
-    if (pi >= lwidth)
-      pi = 0;
-
-    int mj = j - 1;
-    if (mj < 0)
-      mj = lheight - 1;
-
-    int pj = j + 1;
-    if (pj >= lheight)
-      pj = 0;
-
-    int n = 0;
-    boolean[][] t = lifeBoard;
-
-    if (t[mi][j])
-      n++;
-    if (t[mi][mj])
-      n++;
-    if (t[mi][pj])
-      n++;
-
-    if (t[i][mj])
-      n++;
-    if (t[i][pj])
-      n++;
-
-    if (t[pi][j])
-      n++;
-    if (t[pi][mj])
-      n++;
-    if (t[pi][pj])
-      n++;
-
-    return n;
-  }
-
-  int neighboursNormal(int i, int j) {
-
-    int mi = i - 1;
-    int pi = i + 1;
-    int mj = j - 1;
-    int pj = j + 1;
-
-    int n = 0;
-    boolean[][] t = lifeBoard;
-
-    if ((mi >= 0) && t[mi][j])
-      n++;
-    if ((mi >= 0) && (mj >= 0) && t[mi][mj])
-      n++;
-    if ((mi >= 0) && (pj < lheight) && t[mi][pj])
-      n++;
-
-    if ((mj >= 0) && t[i][mj])
-      n++;
-    if ((pj < lheight) && t[i][pj])
-      n++;
-
-    if ((pi < lwidth) && t[pi][j])
-      n++;
-    if ((pi < lwidth) && (mj >= 0) && t[pi][mj])
-      n++;
-    if ((pi < lwidth) && (pj < lheight) && t[pi][pj])
-      n++;
-
-    return n;
-  }
-
-  void fillRandom() {
-    for (int i = 0; i < lwidth; i++) {
-      for (int j = 0; j < lheight; j++) {
-        lifeBoard[i][j] = DLUtil.BooleanRandom(initLifeRatio);
-      }
-    }
+  synchronized void fillRandom() {
+    life.random(initLifeRatio);
   }
 
   public void setInitPattern(String ip) {
@@ -353,11 +459,12 @@ public class DLLife extends DLImage {
 
   public String[] enumInitPattern() {
     return new String[] {
-        INIT_RANDOM, INIT_BLINKER
+        INIT_RANDOM, INIT_BLINKER, INIT_GUN, INIT_ACORN, INIT_R_PENTOMINO, INIT_SWITCH_ENGINES
     };
   }
 
   void init() {
+    inited = initPattern;
     switch (initPattern) {
     case INIT_RANDOM:
       initRandom();
@@ -365,52 +472,67 @@ public class DLLife extends DLImage {
     case INIT_BLINKER:
       initBlinker();
       break;
+    case INIT_GUN:
+      initPattern(GUN);
+      break;
+    case INIT_ACORN:
+      initPattern(ACORN);
+      break;
+    case INIT_R_PENTOMINO:
+      initPattern(R_PENTOMINO);
+      break;
+    case INIT_SWITCH_ENGINES:
+      initPattern(SWITCH_ENGINES);
+      break;
     }
   }
 
-  void initBlinker() {
+  synchronized void initPattern(String rle) {
+    clear();
+    DLLifeRLE.Parse(rle).center(life);
+  }
+
+  synchronized void initBlinker() {
     clear();
 
     int i = lwidth / 2;
     int j = lheight / 2;
 
-    lifeBoard[i][j] = true;
-    lifeBoard[i - 1][j] = true;
-    lifeBoard[i + 1][j] = true;
+    life.set(i, j, true);
+    life.set(i - 1, j, true);
+    life.set(i + 1, j, true);
   }
 
   void initRandom() {
     fillRandom();
   }
 
-  void rule(int i, int j) {
-    int n = neighbours(i, j);
-    boolean v = lifeBoard[i][j];
-    newLife[i][j] = false;
-    if (!v && n == 3)
-      newLife[i][j] = true;
-    if (v && (n == 2 || n == 3))
-      newLife[i][j] = true;
-  }
-
   void clear() {
-    for (int i = 0; i < lifeBoard.length; i++) {
-      boolean[] b = lifeBoard[i];
-      for (int j = 0; j < b.length; j++)
-        b[j] = false;
+    life.clear();
+  }
+
+  /*
+   * DLMain params set the fields without the setters, the universe follows
+   * them here.
+   */
+  void check() {
+    if (life.width() != lwidth || life.height() != lheight || !engine.equals(built)) {
+      life = engine();
+      built = engine;
+      init();
+    } else if (!initPattern.equals(inited)) {
+      init();
     }
+    life.setToric(TORIC.equals(mode));
+    life.setParallel(parallel);
+    view(life);
   }
 
   boolean s() {
     try {
-      synchronized (lifeBoard) {
-        for (int i = 0; i < lwidth; i++) {
-          for (int j = 0; j < lheight; j++) {
-            rule(i, j);
-          }
-        }
-        for (int i = 0; i < lwidth; i++)
-          System.arraycopy(newLife[i], 0, lifeBoard[i], 0, newLife[i].length);
+      synchronized (this) {
+        check();
+        life.step();
       }
     } catch (Exception e) {
       System.err.println(e);
@@ -425,57 +547,184 @@ public class DLLife extends DLImage {
 
   /* painter */
 
-  void paint(Graphics2D g, long dt) {
-    DLUtil.SetHints(g);
-    try {
-      synchronized (lifeBoard) {
-        float w = (float) iwidth / lwidth;
-        float h = (float) iheight / lheight;
-        for (int i = 0; i < lwidth; i++) {
-          for (int j = 0; j < lheight; j++) {
-            float x = i * w;
-            float y = j * h;
-            Shape r = null;
-            if (lifeBoard[i][j]) {
-              if (liveColor != null || liveStroke != null)
-                r = createCellRenderer(liveCellRenderer, i, j, x, y, w, h);
-              if (liveColor != null) {
-                g.setColor(liveColor);
-                g.fill(r);
-              }
-              if (liveStroke != null) {
-                g.setColor(liveStroke);
-                g.draw(r);
-              }
-            } else {
-              if (deadColor != null || deadStroke != null)
-                r = createCellRenderer(deadCellRenderer, i, j, x, y, w, h);
-              if (deadColor != null) {
-                g.setColor(deadColor);
-                g.fill(r);
-              }
-              if (deadStroke != null) {
-                g.setColor(deadStroke);
-                g.draw(r);
-              }
-            }
-          }
+  float cellSize() {
+    return Math.min((float) iwidth / lwidth, (float) iheight / lheight);
+  }
+
+  int[] raster() {
+    int n = iwidth * iheight;
+    if (raster == null || raster.length != n)
+      raster = new int[n];
+    return raster;
+  }
+
+  void fill(int[] p, int rows, DLPixelImage.Rows r) {
+    if (parallel)
+      DLPixelImage.Fill(p, rows, r);
+    else
+      r.fill(0, rows, p);
+  }
+
+  /*
+   * One cell sampled per pixel.
+   */
+  int[] paintRaster() {
+    int[] p = raster();
+    int bg = backgroundColor == null ? 0 : backgroundColor.getRGB();
+    int live = liveColor == null ? bg : liveColor.getRGB();
+    int dead = deadColor == null ? bg : deadColor.getRGB();
+    DLLifeEngine l = life;
+    int w = iwidth;
+    int[] cx = new int[w];
+    for (int x = 0; x < w; x++)
+      cx[x] = (int) ((long) x * lwidth / w);
+    fill(p, iheight, (from, to, pix) -> {
+      for (int y = from, i = from * w; y < to; y++) {
+        int cy = (int) ((long) y * lheight / iheight);
+        for (int x = 0; x < w; x++, i++)
+          pix[i] = l.get(cx[x], cy) ? live : dead;
+      }
+    });
+    return p;
+  }
+
+  /*
+   * Cell shapes rendered once over the background, per state and variant:
+   * the angles of stars and hearts, the shape of random, the count of char.
+   */
+  static class Sprites {
+    final String renderer;
+    final Color fill;
+    final Color stroke;
+    final Color background;
+    final float w;
+    final float h;
+    final int sw;
+    final int sh;
+    final int[][] variants;
+
+    Sprites(DLLife life, String renderer, Color fill, Color stroke, float w, float h) {
+      this.renderer = renderer;
+      this.fill = fill;
+      this.stroke = stroke;
+      this.background = life.backgroundColor;
+      this.w = w;
+      this.h = h;
+      sw = (int) Math.ceil(w);
+      sh = (int) Math.ceil(h);
+      variants = new int[Variants(renderer)][];
+      for (int v = 0; v < variants.length; v++) {
+        BufferedImage img = new BufferedImage(sw, sh, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = img.createGraphics();
+        DLUtil.SetHints(g);
+        if (background != null) {
+          g.setColor(background);
+          g.fillRect(0, 0, sw, sh);
+        }
+        Shape s = life.createCellRenderer(renderer, v, 0, 0, w, h);
+        if (s != null && fill != null) {
+          g.setColor(fill);
+          g.fill(s);
+        }
+        if (s != null && stroke != null) {
+          g.setColor(stroke);
+          g.draw(s);
         }
+        g.dispose();
+        variants[v] = DLPixelImage.Pixels(img);
       }
-    } catch (Exception e) {
-      System.err.println(e);
     }
-    g.drawRect(0, 0, iwidth - 1, iheight - 1);
+
+    boolean matches(DLLife life, String renderer, Color fill, Color stroke, float w, float h) {
+      return this.renderer.equals(renderer) && Objects.equals(this.fill, fill) && Objects.equals(this.stroke, stroke)
+          && Objects.equals(background, life.backgroundColor) && this.w == w && this.h == h;
+    }
+  }
+
+  static final int ANGLES = 8;
+
+  static int Variants(String r) {
+    switch (r) {
+    case RANDOM:
+      return 6 * 2;
+    case STARS:
+    case HEART:
+      return ANGLES;
+    case CHAR:
+      return 9;
+    }
+    return 1;
   }
 
-  Shape createCellRenderer(String r, int i, int j, float x, float y, float w, float h) {
+  Sprites sprites(Sprites s, String renderer, Color fill, Color stroke, float w, float h) {
+    if (s == null || !s.matches(this, renderer, fill, stroke, w, h))
+      s = new Sprites(this, renderer, fill, stroke, w, h);
+    return s;
+  }
+
+  /*
+   * Sprite variant of cell i, j: its neighbour count for char, else drawn
+   * from the cell and frame so each frame reshuffles them like the shapes
+   * used to be.
+   */
+  int variant(Sprites s, int i, int j, int frame) {
+    int n = s.variants.length;
+    if (n == 1)
+      return 0;
+    if (CHAR.equals(s.renderer))
+      return life.neighbours(i, j);
+    int m = i * 0x9E3779B1 ^ j * 0x85EBCA6B ^ frame * 0xC2B2AE35;
+    m ^= m >>> 16;
+    m *= 0x7FEB352D;
+    m ^= m >>> 15;
+    return (m & 0x7FFFFFFF) % n;
+  }
+
+  /*
+   * Each cell covers pixels [x(i), x(i + 1)[ x [y(j), y(j + 1)[ and gets the
+   * top left part of its sprite, so bands of cell rows write disjoint pixels.
+   */
+  int[] paintSprites() {
+    float w = (float) iwidth / lwidth;
+    float h = (float) iheight / lheight;
+    Sprites live = liveSprites = sprites(liveSprites, liveCellRenderer, liveColor, liveStroke, w, h);
+    Sprites dead = deadSprites = sprites(deadSprites, deadCellRenderer, deadColor, deadStroke, w, h);
+    int[] p = raster();
+    int iw = iwidth;
+    int[] px = new int[lwidth + 1];
+    int[] py = new int[lheight + 1];
+    for (int i = 0; i <= lwidth; i++)
+      px[i] = Math.min(iwidth, (int) (i * w));
+    for (int j = 0; j <= lheight; j++)
+      py[j] = Math.min(iheight, (int) (j * h));
+    px[lwidth] = iwidth;
+    py[lheight] = iheight;
+    DLLifeEngine l = life;
+    int frame = frameCount;
+    fill(p, lheight, (from, to, pix) -> {
+      for (int j = from; j < to; j++) {
+        int y0 = py[j];
+        int rows = Math.min(py[j + 1] - y0, live.sh);
+        for (int i = 0; i < lwidth; i++) {
+          Sprites s = l.get(i, j) ? live : dead;
+          int[] v = s.variants[variant(s, i, j, frame)];
+          int x0 = px[i];
+          int cols = Math.min(px[i + 1] - x0, s.sw);
+          for (int y = 0; y < rows; y++)
+            System.arraycopy(v, y * s.sw, pix, (y0 + y) * iw + x0, cols);
+        }
+      }
+    });
+    return p;
+  }
+
+  Shape createCellRenderer(String r, int v, float x, float y, float w, float h) {
     Shape s = null;
     float rd = (w + h) / 2;
 
     switch (r) {
     case RANDOM:
-      int rnd = DLUtil.RangeRandom(0, 6);
-      switch (rnd) {
+      switch (v % 6) {
       case 0:
         s = DLUtil.Square(x + w / 2f, y + w / 2f, rd);
         break;
@@ -494,14 +743,6 @@ public class DLLife extends DLImage {
       case 5:
         s = DLUtil.Heart(x, y, w, h, false);
         break;
-      case 6:
-        String c;
-        int n = neighbours(i, j);
-        c = new Integer(n).toString();
-        s = DLUtil.stringToShape(c, SERIF, 20, PLAIN);
-      default:
-        s = null;
-        break;
       }
       break;
     case STARS:
@@ -520,10 +761,7 @@ public class DLLife extends DLImage {
       s = DLUtil.Heart(x, y, w, h, false);
       break;
     case CHAR:
-      String c;
-      int n = neighbours(i, j);
-      c = new Integer(n).toString();
-      s = DLUtil.stringToShape(c, SERIF, 20, PLAIN);
+      s = DLUtil.stringToShape(Integer.toString(v), SERIF, 20, PLAIN);
       float m = 0.5f;
       s = DLUtil.fitShapeIn(s, x + m, y + m, w - 2 * m, h - 2 * m, true);
       break;
@@ -531,13 +769,12 @@ public class DLLife extends DLImage {
     return s;
   }
 
-  Shape createCellRenderer(int i, int j, float x, float y, float w, float h) {
-    Shape s;
-    if (lifeBoard[i][j])
-      s = createCellRenderer(liveCellRenderer, i, j, x, y, w, h);
-    else
-      s = createCellRenderer(deadCellRenderer, i, j, x, y, w, h);
-    return s;
+  public boolean getParallel() {
+    return parallel;
+  }
+
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
   }
 
   public int getThreadSleep() {
@@ -587,13 +824,11 @@ public class DLLife extends DLImage {
 
     switch (e.getID()) {
     case MouseEvent.MOUSE_DRAGGED:
-      lifeBoard[i][j] = true;
-      return true;
     case MouseEvent.MOUSE_PRESSED:
-      lifeBoard[i][j] = true;
-      return true;
     case MouseEvent.MOUSE_RELEASED:
-      lifeBoard[i][j] = true;
+      synchronized (this) {
+        life.set(i, j, true);
+      }
       return true;
     }
     return false;
@@ -0,0 +1,172 @@
+package com.mdu.DrawLine;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/*
+ * Bit packed Life, 64 cells per long. Row y is the n words starting at y * n,
+ * cell x is bit x & 63 of word x >> 6. The bits above width in the last word
+ * of a row are kept clear.
+ *
+ * A step shifts each word left and right by one cell, carrying the edge bit
+ * in from the neighbour word, and adds the three rows of three with full
+ * adders, 64 cells at a time. The 3x3 total T (center included) is s + 2 w2 +
+ * 4 w4 + 8 w8, a cell lives next when T == 3, or T == 4 and it is alive.
+ */
+class DLLifeBits implements DLLifeEngine {
+  final int width;
+  final int height;
+  final int n;
+  final int r;
+  final long mask;
+  /* words below which a generation is not worth splitting */
+  static final int PARALLEL = 1 << 12;
+  boolean toric;
+  boolean parallel;
+  long[] cur;
+  long[] next;
+
+  DLLifeBits(int width, int height, boolean toric) {
+    this.width = width;
+    this.height = height;
+    this.toric = toric;
+    n = (width + 63) >> 6;
+    r = width - ((n - 1) << 6);
+    mask = r == 64 ? -1L : (1L << r) - 1;
+    cur = new long[n * height];
+    next = new long[n * height];
+  }
+
+  public int width() {
+    return width;
+  }
+
+  public int height() {
+    return height;
+  }
+
+  public boolean get(int x, int y) {
+    if (x < 0 || y < 0 || x >= width || y >= height)
+      return false;
+    return (cur[y * n + (x >> 6)] >>> x & 1) != 0;
+  }
+
+  public void set(int x, int y, boolean v) {
+    if (x < 0 || y < 0 || x >= width || y >= height)
+      return;
+    int i = y * n + (x >> 6);
+    if (v)
+      cur[i] |= 1L << x;
+    else
+      cur[i] &= ~(1L << x);
+  }
+
+  public void clear() {
+    Arrays.fill(cur, 0);
+  }
+
+  public void setToric(boolean toric) {
+    this.toric = toric;
+  }
+
+  public int wrap(int c, int n) {
+    return toric ? Math.floorMod(c, n) : c;
+  }
+
+  public void random(float ratio) {
+    if (ratio != 0.5f) {
+      DLLifeEngine.super.random(ratio);
+      return;
+    }
+    for (int i = 0; i < cur.length; i++)
+      cur[i] = DLUtil.random.nextLong();
+    for (int i = n - 1; i < cur.length; i += n)
+      cur[i] &= mask;
+  }
+
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  /*
+   * In parallel each band of rows computes its own edge sums, the
+   * generation ends when all bands are done.
+   */
+  public void step() {
+    int bands = Math.min(height, DLPixelImage.BANDS);
+    if (parallel && bands > 1 && cur.length >= PARALLEL)
+      IntStream.range(0, bands).parallel().forEach(b -> rows(b * height / bands, (b + 1) * height / bands));
+    else
+      rows(0, height);
+    long[] t = cur;
+    cur = next;
+    next = t;
+  }
+
+  /*
+   * Horizontal sums of row y: a + 2 b is the number of live cells among each
+   * cell and its left and right neighbours. Rows outside a bounded universe
+   * are empty.
+   */
+  void sums(int y, long[] a, long[] b) {
+    if (!toric && (y < 0 || y >= height)) {
+      Arrays.fill(a, 0);
+      Arrays.fill(b, 0);
+      return;
+    }
+    int o = Math.floorMod(y, height) * n;
+    long[] c = cur;
+    int last = n - 1;
+    long in = toric ? c[o + last] >>> (r - 1) & 1 : 0;
+    for (int k = 0; k < n; k++) {
+      long w = c[o + k];
+      long l = w << 1 | (k > 0 ? c[o + k - 1] >>> 63 : in);
+      long rt = w >>> 1;
+      if (k < last)
+        rt |= c[o + k + 1] << 63;
+      else if (toric)
+        rt |= (c[o] & 1) << (r - 1);
+      a[k] = l ^ w ^ rt;
+      b[k] = l & w | l & rt | w & rt;
+    }
+  }
+
+  /*
+   * Next state of 64 cells from the horizontal sums of the rows above (a0,
+   * b0), at (a1, b1) and below (a2, b2).
+   */
+  static long Next(long a0, long b0, long a1, long b1, long a2, long b2, long alive) {
+    long s = a0 ^ a1 ^ a2;
+    long ca = a0 & a1 | a0 & a2 | a1 & a2;
+    long sb = b0 ^ b1 ^ b2;
+    long cb = b0 & b1 | b0 & b2 | b1 & b2;
+    long w2 = ca ^ sb;
+    long cc = ca & sb;
+    long w4 = cb ^ cc;
+    long w8 = cb & cc;
+    return ~w8 & (s & w2 & ~w4 | alive & ~s & ~w2 & w4);
+  }
+
+  /*
+   * Computes rows [from, to[ of next from cur.
+   */
+  void rows(int from, int to) {
+    long[] a0 = new long[n], b0 = new long[n];
+    long[] a1 = new long[n], b1 = new long[n];
+    long[] a2 = new long[n], b2 = new long[n];
+    sums(from - 1, a0, b0);
+    sums(from, a1, b1);
+    long[] c = cur;
+    long[] d = next;
+    for (int y = from; y < to; y++) {
+      sums(y + 1, a2, b2);
+      int o = y * n;
+      for (int k = 0; k < n; k++)
+        d[o + k] = Next(a0[k], b0[k], a1[k], b1[k], a2[k], b2[k], c[o + k]);
+      d[o + n - 1] &= mask;
+      long[] t;
+      t = a0; a0 = a1; a1 = a2; a2 = t;
+      t = b0; b0 = b1; b1 = b2; b2 = t;
+    }
+  }
+}
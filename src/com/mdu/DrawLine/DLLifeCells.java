@@ -0,0 +1,170 @@
+package com.mdu.DrawLine;
+
+import java.util.stream.IntStream;
+
+/*
+ * One boolean per cell, the rule applied cell by cell.
+ */
+class DLLifeCells implements DLLifeEngine {
+  final int lwidth;
+  final int lheight;
+  boolean toric;
+  boolean parallel;
+  boolean lifeBoard[][];
+  boolean newLife[][];
+
+  DLLifeCells(int lwidth, int lheight, boolean toric) {
+    this.lwidth = lwidth;
+    this.lheight = lheight;
+    this.toric = toric;
+    lifeBoard = new boolean[lwidth][lheight];
+    newLife = new boolean[lwidth][lheight];
+  }
+
+  public int width() {
+    return lwidth;
+  }
+
+  public int height() {
+    return lheight;
+  }
+
+  public boolean get(int x, int y) {
+    if (x < 0 || y < 0 || x >= lwidth || y >= lheight)
+      return false;
+    return lifeBoard[x][y];
+  }
+
+  public void set(int x, int y, boolean v) {
+    if (x < 0 || y < 0 || x >= lwidth || y >= lheight)
+      return;
+    lifeBoard[x][y] = v;
+  }
+
+  public void clear() {
+    for (int i = 0; i < lifeBoard.length; i++) {
+      boolean[] b = lifeBoard[i];
+      for (int j = 0; j < b.length; j++)
+        b[j] = false;
+    }
+  }
+
+  public void setToric(boolean toric) {
+    this.toric = toric;
+  }
+
+  public int wrap(int c, int n) {
+    return toric ? Math.floorMod(c, n) : c;
+  }
+
+  public int neighbours(int i, int j) {
+    if (toric)
+      return neighboursToric(i, j);
+    return neighboursNormal(i, j);
+  }
+
+  int neighboursToric(int i, int j) {
+    int mi = i - 1;
+    if (mi < 0)
+      mi = lwidth - 1;
+
+    int pi = i + 1;
+    if (pi >= lwidth)
+      pi = 0;
+
+    int mj = j - 1;
+    if (mj < 0)
+      mj = lheight - 1;
+
+    int pj = j + 1;
+    if (pj >= lheight)
+      pj = 0;
+
+    int n = 0;
+    boolean[][] t = lifeBoard;
+
+    if (t[mi][j])
+      n++;
+    if (t[mi][mj])
+      n++;
+    if (t[mi][pj])
+      n++;
+
+    if (t[i][mj])
+      n++;
+    if (t[i][pj])
+      n++;
+
+    if (t[pi][j])
+      n++;
+    if (t[pi][mj])
+      n++;
+    if (t[pi][pj])
+      n++;
+
+    return n;
+  }
+
+  int neighboursNormal(int i, int j) {
+    int mi = i - 1;
+    int pi = i + 1;
+    int mj = j - 1;
+    int pj = j + 1;
+
+    int n = 0;
+    boolean[][] t = lifeBoard;
+
+    if ((mi >= 0) && t[mi][j])
+      n++;
+    if ((mi >= 0) && (mj >= 0) && t[mi][mj])
+      n++;
+    if ((mi >= 0) && (pj < lheight) && t[mi][pj])
+      n++;
+
+    if ((mj >= 0) && t[i][mj])
+      n++;
+    if ((pj < lheight) && t[i][pj])
+      n++;
+
+    if ((pi < lwidth) && t[pi][j])
+      n++;
+    if ((pi < lwidth) && (mj >= 0) && t[pi][mj])
+      n++;
+    if ((pi < lwidth) && (pj < lheight) && t[pi][pj])
+      n++;
+
+    return n;
+  }
+
+  void rule(int i, int j) {
+    int n = neighbours(i, j);
+    boolean v = lifeBoard[i][j];
+    newLife[i][j] = false;
+    if (!v && n == 3)
+      newLife[i][j] = true;
+    if (v && (n == 2 || n == 3))
+      newLife[i][j] = true;
+  }
+
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  void columns(int from, int to) {
+    for (int i = from; i < to; i++) {
+      for (int j = 0; j < lheight; j++) {
+        rule(i, j);
+      }
+    }
+  }
+
+  public void step() {
+    int bands = Math.min(lwidth, DLPixelImage.BANDS);
+    if (parallel && bands > 1 && lwidth * lheight >= DLLifeBits.PARALLEL)
+      IntStream.range(0, bands).parallel().forEach(b -> columns(b * lwidth / bands, (b + 1) * lwidth / bands));
+    else
+      columns(0, lwidth);
+    for (int i = 0; i < lwidth; i++)
+      System.arraycopy(newLife[i], 0, lifeBoard[i], 0, newLife[i].length);
+  }
+}
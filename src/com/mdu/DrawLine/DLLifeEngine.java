@@ -0,0 +1,70 @@
+package com.mdu.DrawLine;
+
+/*
+ * A Life universe as DLLife steps, edits and paints it. Cells are x, y with
+ * 0 <= x < width(), 0 <= y < height(); out of range cells are dead and
+ * setting them does nothing, except in unbounded universes where width() x
+ * height() is only the part that is shown. Toric universes wrap around their
+ * edges, bounded ones are surrounded by dead cells.
+ */
+interface DLLifeEngine {
+  int width();
+
+  int height();
+
+  boolean get(int x, int y);
+
+  void set(int x, int y, boolean v);
+
+  void clear();
+
+  void step();
+
+  void setToric(boolean toric);
+
+  /*
+   * Steps bands of the universe on the common fork join pool, when the
+   * engine can.
+   */
+  default void setParallel(boolean parallel) {
+  }
+
+  /*
+   * Moves the viewport of an unbounded universe, cell 0, 0 at x, y.
+   */
+  default void setView(long x, long y) {
+  }
+
+  /*
+   * Bounding box of the live cells of an unbounded universe, { minx, miny,
+   * maxx, maxy } in its own coordinates, or null.
+   */
+  default long[] bounds() {
+    return null;
+  }
+
+  default int neighbours(int x, int y) {
+    int n = 0;
+    for (int j = -1; j <= 1; j++)
+      for (int i = -1; i <= 1; i++)
+        if ((i != 0 || j != 0) && get(wrap(x + i, width()), wrap(y + j, height())))
+          n++;
+    return n;
+  }
+
+  /*
+   * Coordinate c of a toric universe of size n, as is in a bounded one.
+   */
+  default int wrap(int c, int n) {
+    return c;
+  }
+
+  /*
+   * Fills the universe, each cell alive with probability ratio.
+   */
+  default void random(float ratio) {
+    for (int y = 0; y < height(); y++)
+      for (int x = 0; x < width(); x++)
+        set(x, y, DLUtil.random.nextFloat() < ratio);
+  }
+}
@@ -0,0 +1,118 @@
+package com.mdu.DrawLine;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Arrays;
+
+/*
+ * Life pattern in run length encoding, the format of most pattern
+ * collections:
+ *
+ * #C comment
+ * x = 3, y = 3, rule = B3/S23
+ * bo$2bo$3o!
+ *
+ * b is a dead cell, any other letter a live one, $ ends a row and ! the
+ * pattern, each optionally preceded by a count.
+ */
+class DLLifeRLE {
+  int width;
+  int height;
+  /* x, y of the live cells */
+  int[] cells = new int[64];
+  int count;
+
+  static DLLifeRLE Parse(String rle) {
+    try {
+      return Read(new StringReader(rle));
+    } catch (IOException e) {
+      DLError.report(e);
+      return new DLLifeRLE();
+    }
+  }
+
+  static DLLifeRLE Load(String file) throws IOException {
+    Reader r = new BufferedReader(new FileReader(file));
+    try {
+      return Read(r);
+    } finally {
+      r.close();
+    }
+  }
+
+  static DLLifeRLE Read(Reader in) throws IOException {
+    BufferedReader r = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+    DLLifeRLE p = new DLLifeRLE();
+    int x = 0;
+    int y = 0;
+    String l;
+    lines: while ((l = r.readLine()) != null) {
+      l = l.trim();
+      if (l.startsWith("#"))
+        continue;
+      if (l.startsWith("x")) {
+        for (String f : l.split(",")) {
+          String[] kv = f.split("=");
+          if (kv.length != 2)
+            continue;
+          String k = kv[0].trim();
+          if (k.equals("x"))
+            p.width = Integer.parseInt(kv[1].trim());
+          else if (k.equals("y"))
+            p.height = Integer.parseInt(kv[1].trim());
+        }
+        continue;
+      }
+      int n = 0;
+      for (int i = 0; i < l.length(); i++) {
+        char c = l.charAt(i);
+        if (c >= '0' && c <= '9') {
+          n = n * 10 + c - '0';
+          continue;
+        }
+        int run = n == 0 ? 1 : n;
+        n = 0;
+        if (c == '!')
+          break lines;
+        if (c == '$') {
+          y += run;
+          x = 0;
+        } else if (c == 'b' || c == '.') {
+          x += run;
+        } else if (Character.isLetter(c)) {
+          for (int k = 0; k < run; k++)
+            p.add(x++, y);
+        }
+      }
+    }
+    return p;
+  }
+
+  void add(int x, int y) {
+    if (2 * count + 2 > cells.length)
+      cells = Arrays.copyOf(cells, cells.length * 2);
+    cells[2 * count] = x;
+    cells[2 * count + 1] = y;
+    count++;
+    width = Math.max(width, x + 1);
+    height = Math.max(height, y + 1);
+  }
+
+  /*
+   * Sets the cells of the pattern with its top left corner at x, y.
+   */
+  void place(DLLifeEngine e, int x, int y) {
+    for (int i = 0; i < count; i++)
+      e.set(x + cells[2 * i], y + cells[2 * i + 1], true);
+  }
+
+  /*
+   * Sets the pattern in the middle of e.
+   */
+  void center(DLLifeEngine e) {
+    place(e, (e.width() - width) / 2, (e.height() - height) / 2);
+  }
+}
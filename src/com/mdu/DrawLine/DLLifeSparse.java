@@ -0,0 +1,288 @@
+package com.mdu.DrawLine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/*
+ * Life on an unbounded plane stored as 64x64 blocks, bit packed one long per
+ * row as in DLLifeBits, in a DLLongMap keyed by block coordinates. Only
+ * blocks that changed in the last generation and their neighbours are
+ * computed: a block whose neighbourhood did not change keeps its state. A
+ * missing neighbour is created only when the changed block has live cells on
+ * the shared edge, and empty blocks that stop changing are dropped, so a
+ * generation costs in proportion to the activity, not to the area.
+ *
+ * As with DLHashLife width x height is a viewport with cell 0, 0 at vx, vy
+ * and toric mode does not apply.
+ */
+class DLLifeSparse implements DLLifeEngine {
+  static final int B = 64;
+  static final long[] ZERO = new long[B];
+
+  static final class Block {
+    final int bx;
+    final int by;
+    long[] cur = new long[B];
+    long[] next = new long[B];
+    int stamp;
+    boolean dirty;
+
+    Block(int bx, int by) {
+      this.bx = bx;
+      this.by = by;
+    }
+  }
+
+  final int width;
+  final int height;
+  long vx;
+  long vy;
+  long generation;
+  final DLLongMap<Block> blocks = new DLLongMap<Block>();
+  ArrayList<Block> changed = new ArrayList<Block>();
+  ArrayList<Block> work = new ArrayList<Block>();
+  int stamp;
+  boolean parallel;
+
+  DLLifeSparse(int width, int height) {
+    this.width = width;
+    this.height = height;
+    vx = -(width / 2);
+    vy = -(height / 2);
+  }
+
+  static long key(int bx, int by) {
+    return ((long) bx << 32) | (by & 0xffffffffL);
+  }
+
+  public int width() {
+    return width;
+  }
+
+  public int height() {
+    return height;
+  }
+
+  public void setToric(boolean toric) {
+  }
+
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
+
+  public void setView(long x, long y) {
+    vx = x;
+    vy = y;
+  }
+
+  Block block(int bx, int by) {
+    Block b = blocks.get(key(bx, by));
+    if (b == null) {
+      b = new Block(bx, by);
+      blocks.put(key(bx, by), b);
+    }
+    return b;
+  }
+
+  long[] rows(int bx, int by) {
+    Block b = blocks.get(key(bx, by));
+    return b == null ? ZERO : b.cur;
+  }
+
+  void touch(Block b) {
+    if (!b.dirty) {
+      b.dirty = true;
+      changed.add(b);
+    }
+  }
+
+  public boolean get(int x, int y) {
+    long cx = vx + x;
+    long cy = vy + y;
+    Block b = blocks.get(key((int) Math.floorDiv(cx, B), (int) Math.floorDiv(cy, B)));
+    return b != null && (b.cur[Math.floorMod(cy, B)] >>> cx & 1) != 0;
+  }
+
+  public void set(int x, int y, boolean v) {
+    long cx = vx + x;
+    long cy = vy + y;
+    int bx = (int) Math.floorDiv(cx, B);
+    int by = (int) Math.floorDiv(cy, B);
+    Block b = v ? block(bx, by) : blocks.get(key(bx, by));
+    if (b == null)
+      return;
+    int r = Math.floorMod(cy, B);
+    if (v)
+      b.cur[r] |= 1L << cx;
+    else
+      b.cur[r] &= ~(1L << cx);
+    touch(b);
+  }
+
+  public void clear() {
+    blocks.clear();
+    changed.clear();
+    generation = 0;
+  }
+
+  /*
+   * Replaces the universe by a random viewport, 64 cells at a time.
+   */
+  public void random(float ratio) {
+    clear();
+    long x1 = vx + width;
+    long y1 = vy + height;
+    for (long by = Math.floorDiv(vy, B); by * B < y1; by++)
+      for (long bx = Math.floorDiv(vx, B); bx * B < x1; bx++) {
+        long x0 = bx * B;
+        long mask = -1L;
+        if (vx > x0)
+          mask &= -1L << (vx - x0);
+        if (x1 < x0 + B)
+          mask &= -1L >>> (x0 + B - x1);
+        Block b = block((int) bx, (int) by);
+        for (int r = 0; r < B; r++) {
+          long y = by * B + r;
+          if (y < vy || y >= y1)
+            continue;
+          long w = 0;
+          if (ratio == 0.5f)
+            w = DLUtil.random.nextLong();
+          else
+            for (int i = 0; i < B; i++)
+              if (DLUtil.random.nextFloat() < ratio)
+                w |= 1L << i;
+          b.cur[r] = w & mask;
+        }
+        touch(b);
+      }
+  }
+
+  /*
+   * True when b has live cells next to its neighbour dx, dy.
+   */
+  static boolean Touches(Block b, int dx, int dy) {
+    long m = dx < 0 ? 1L : dx > 0 ? 1L << 63 : -1L;
+    long[] c = b.cur;
+    if (dy < 0)
+      return (c[0] & m) != 0;
+    if (dy > 0)
+      return (c[B - 1] & m) != 0;
+    for (int r = 0; r < B; r++)
+      if ((c[r] & m) != 0)
+        return true;
+    return false;
+  }
+
+  void queue(Block b) {
+    if (b.stamp != stamp) {
+      b.stamp = stamp;
+      work.add(b);
+    }
+  }
+
+  public void step() {
+    stamp++;
+    work.clear();
+    ArrayList<Block> c = changed;
+    changed = new ArrayList<Block>();
+    for (Block b : c) {
+      b.dirty = false;
+      queue(b);
+      for (int dy = -1; dy <= 1; dy++)
+        for (int dx = -1; dx <= 1; dx++) {
+          if (dx == 0 && dy == 0)
+            continue;
+          Block n = blocks.get(key(b.bx + dx, b.by + dy));
+          if (n == null && Touches(b, dx, dy))
+            n = block(b.bx + dx, b.by + dy);
+          if (n != null)
+            queue(n);
+        }
+    }
+    if (parallel && work.size() > 16)
+      work.parallelStream().forEach(b -> compute(b));
+    else
+      for (Block b : work)
+        compute(b);
+    for (Block b : work) {
+      long[] t = b.cur;
+      b.cur = b.next;
+      b.next = t;
+      if (!Arrays.equals(b.cur, b.next))
+        touch(b);
+      else if (Arrays.equals(b.cur, ZERO))
+        blocks.remove(key(b.bx, b.by));
+    }
+    generation++;
+  }
+
+  /*
+   * Next state of b in b.next, with the full adders of DLLifeBits. Rows -1
+   * and 64 come from the blocks above and below, the bits carried in on each
+   * side from the blocks left and right.
+   */
+  void compute(Block b) {
+    int x = b.bx;
+    int y = b.by;
+    long[] c = b.cur;
+    long[] n = rows(x, y - 1), s = rows(x, y + 1);
+    long[] w = rows(x - 1, y), e = rows(x + 1, y);
+    long[] nw = rows(x - 1, y - 1), ne = rows(x + 1, y - 1);
+    long[] sw = rows(x - 1, y + 1), se = rows(x + 1, y + 1);
+    long[] d = b.next;
+
+    long m = n[B - 1];
+    long l = m << 1 | nw[B - 1] >>> 63;
+    long r = m >>> 1 | ne[B - 1] << 63;
+    long a0 = l ^ m ^ r, b0 = l & m | l & r | m & r;
+    m = c[0];
+    l = m << 1 | w[0] >>> 63;
+    r = m >>> 1 | e[0] << 63;
+    long a1 = l ^ m ^ r, b1 = l & m | l & r | m & r;
+    for (int i = 0; i < B; i++) {
+      if (i < B - 1) {
+        m = c[i + 1];
+        l = m << 1 | w[i + 1] >>> 63;
+        r = m >>> 1 | e[i + 1] << 63;
+      } else {
+        m = s[0];
+        l = m << 1 | sw[0] >>> 63;
+        r = m >>> 1 | se[0] << 63;
+      }
+      long a2 = l ^ m ^ r, b2 = l & m | l & r | m & r;
+      d[i] = DLLifeBits.Next(a0, b0, a1, b1, a2, b2, c[i]);
+      a0 = a1;
+      b0 = b1;
+      a1 = a2;
+      b1 = b2;
+    }
+  }
+
+  long population() {
+    long[] p = new long[1];
+    blocks.forEach(b -> {
+      for (long r : b.cur)
+        p[0] += Long.bitCount(r);
+    });
+    return p[0];
+  }
+
+  public long[] bounds() {
+    long[] bb = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE };
+    blocks.forEach(b -> {
+      for (int r = 0; r < B; r++) {
+        long v = b.cur[r];
+        if (v == 0)
+          continue;
+        long x = (long) b.bx * B;
+        long y = (long) b.by * B + r;
+        bb[0] = Math.min(bb[0], x + Long.numberOfTrailingZeros(v));
+        bb[2] = Math.max(bb[2], x + 63 - Long.numberOfLeadingZeros(v));
+        bb[1] = Math.min(bb[1], y);
+        bb[3] = Math.max(bb[3], y);
+      }
+    });
+    return bb[0] == Long.MAX_VALUE ? null : bb;
+  }
+}
@@ -0,0 +1,107 @@
+package com.mdu.DrawLine;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/*
+ * Open addressing hash map from long to V, without boxing the keys. Slots
+ * are probed linearly, removal shifts the following entries back so no
+ * tombstones are left. null values are not stored.
+ */
+class DLLongMap<V> {
+  long[] keys;
+  Object[] values;
+  int size;
+
+  DLLongMap() {
+    this(16);
+  }
+
+  DLLongMap(int capacity) {
+    int n = Integer.highestOneBit(Math.max(4, capacity - 1) * 2);
+    keys = new long[n];
+    values = new Object[n];
+  }
+
+  static int hash(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    return (int) k;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int slot(long k) {
+    int m = keys.length - 1;
+    int i = hash(k) & m;
+    while (values[i] != null && keys[i] != k)
+      i = i + 1 & m;
+    return i;
+  }
+
+  @SuppressWarnings("unchecked")
+  V get(long k) {
+    return (V) values[slot(k)];
+  }
+
+  @SuppressWarnings("unchecked")
+  V put(long k, V v) {
+    int i = slot(k);
+    V o = (V) values[i];
+    keys[i] = k;
+    values[i] = v;
+    if (o == null && ++size > keys.length * 2 / 3)
+      resize(keys.length * 2);
+    return o;
+  }
+
+  @SuppressWarnings("unchecked")
+  V remove(long k) {
+    int m = keys.length - 1;
+    int i = slot(k);
+    V o = (V) values[i];
+    if (o == null)
+      return null;
+    size--;
+    /* shift back the entries whose probe went through i */
+    for (int j = i + 1 & m; values[j] != null; j = j + 1 & m) {
+      int h = hash(keys[j]) & m;
+      if ((j - h & m) >= (j - i & m)) {
+        keys[i] = keys[j];
+        values[i] = values[j];
+        i = j;
+      }
+    }
+    values[i] = null;
+    return o;
+  }
+
+  void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  void resize(int n) {
+    long[] ok = keys;
+    Object[] ov = values;
+    keys = new long[n];
+    values = new Object[n];
+    for (int i = 0; i < ok.length; i++)
+      if (ov[i] != null) {
+        int j = slot(ok[i]);
+        keys[j] = ok[i];
+        values[j] = ov[i];
+      }
+  }
+
+  @SuppressWarnings("unchecked")
+  void forEach(Consumer<V> c) {
+    Object[] v = values;
+    for (int i = 0; i < v.length; i++)
+      if (v[i] != null)
+        c.accept((V) v[i]);
+  }
+}
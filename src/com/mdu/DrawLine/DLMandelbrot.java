@@ -1,48 +1,28 @@
 package com.mdu.DrawLine;
 
-import static java.awt.event.MouseEvent.BUTTON1;
-
-import java.awt.BorderLayout;
 import java.awt.Color;
-import java.awt.Dimension;
 import java.awt.Graphics;
-import java.awt.Graphics2D;
-import java.awt.Point;
-import java.awt.Rectangle;
-import java.awt.Toolkit;
 import java.awt.event.MouseEvent;
-import java.awt.event.MouseWheelEvent;
-import java.awt.geom.AffineTransform;
-import java.awt.geom.Point2D;
-import java.awt.image.BufferedImage;
-
-import javax.swing.JFrame;
-import javax.swing.SwingUtilities;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-public class DLMandelbrot extends DLPointImage {
-  boolean paintOutside = true;
-  boolean paintInside = true;
-  Point lastMousePoint = null;
-  int maxIter = 1000;
+public class DLMandelbrot extends DLEscapeTime {
   DLPoint poi;
-  DLColorModel model1 = DLUtil.ColorModel1;
-  DLColorModel model2 = DLUtil.ColorModel2;
-  DLColorModel model3 = DLUtil.ColorModel3;
-  DLColorModel model = model3;
-
-  static double XMax = 0.6;
-  static double XMin = -2.1;
-  static double YMax = 1.2;
-  static double YMin = -1.2;
-
-  double xMax = XMax;
-  double xMin = XMin;
-  double yMax = YMax;
-  double yMin = YMin;
 
-  BufferedImage translateImage = null;
-  int currentDx, currentDy;
-  int[][] coordsArray = null;
+  /*
+   * Julia preview: the Julia set of the point under the mouse is drawn in
+   * the top left corner, at a third of the size. Mouse moves are coalesced,
+   * the preview follows the last one at most every PREVIEW_DELAY ms, and
+   * its tiles are not cached since c hardly ever comes back.
+   */
+  static final int PREVIEW = 3;
+  static final long PREVIEW_DELAY = 40;
+  boolean juliaPreview = false;
+  DLJulia julia;
+  final Object previewLock = new Object();
+  float previewX;
+  float previewY;
+  ScheduledFuture<?> previewTask;
 
   DLMandelbrot() {
     super();
@@ -62,168 +42,91 @@ public class DLMandelbrot extends DLPointImage {
 
   public void paint(Graphics gr, boolean deco) {
     super.paint(gr, deco);
-    if (translateImage != null) {
-      Rectangle r = getBounds(false);
-//      Shape c = gr.getClip();
-      gr.setClip(r);
-      gr.drawImage(translateImage, (int) x - iwidth / 2 + currentDx, (int) y - iheight / 2 + currentDy, null);
-//      gr.setClip(c);
-      gr.setClip(null);
+    DLJulia j = julia;
+    if (j != null && j.image != null) {
+      int px = (int) x - iwidth / 2;
+      int py = (int) y - iheight / 2;
+      gr.drawImage(j.image, px, py, null);
+      gr.setColor(Color.gray);
+      gr.drawRect(px, py, j.iwidth - 1, j.iheight - 1);
     }
   }
 
-  public void f(Graphics2D g, DLThread t) {
-
-    final double x1 = xMin;
-    final double x2 = xMax;
-    final double y1 = yMin;
-    final double y2 = yMax;
-
-    if (coordsArray == null)
-      coordsArray = DLUtil.ShuffleCoords(iwidth, iheight);
-    int[][] al = coordsArray;
-
-    for (int i = 0; i < al.length; i++) {
+  boolean mouse(MouseEvent e) {
+    if (juliaPreview && e.getID() == MouseEvent.MOUSE_MOVED) {
+      preview(e.getX() - (x - iwidth / 2), e.getY() - (y - iheight / 2));
+      return true;
+    }
+    return super.mouse(e);
+  }
 
-      if ((t != null) && t.isStopped())
+  void preview(float x, float y) {
+    synchronized (previewLock) {
+      previewX = x;
+      previewY = y;
+      if (previewTask != null)
         return;
-
-      int[] ii = al[i];
-      int x = ii[0];
-      int y = ii[1];
-
-      final double nx = DLUtil.Normalize(x1, x2, 0, iwidth, x);
-      final double ny = DLUtil.Normalize(y1, y2, 0, iheight, y);
-      double zr = 0;
-      double zi = 0;
-      final double cr = nx;
-      final double ci = ny;
-      int k = 0;
-      double stop = 0;
-      do {
-        if ((t != null) && t.isStopped()) {
-          return;
-        }
-        final double tmp = zr;
-        zr = zr * zr - zi * zi + cr;
-        zi = 2 * zi * tmp + ci;
-        stop = zr * zr + zi * zi;
-        k++;
-        if ((t != null) && t.isStopped()) {
-          return;
+      previewTask = DLScheduler.getScheduler().executor.schedule(() -> {
+        float px, py;
+        synchronized (previewLock) {
+          px = previewX;
+          py = previewY;
+          previewTask = null;
         }
-      } while (stop < 4 && k < maxIter);
-      if (k == maxIter) {
-        if (paintInside) {
-          stop = DLUtil.Normalize(0, 1, 0.01f, 0.99f, stop);
-          float s = (float) stop;
-          int color = model.getColor(s);
-          Color c = new Color(color);
-          // g.setColor(c);
-          setPointFill(c);
-          drawPoint(g, x, y);
-        }
-      } else if (paintOutside) {
-        stop = DLUtil.Normalize(0, 1, 0, maxIter, k);
-        final float s = (float) stop;
-        final int color = model.getColor(s);
-        Color c = new Color(color);
-        // g.setColor(c);
-        setPointFill(c);
-        drawPoint(g, x, y);
-      }
-      if (parent != null) {
-        if ((y + iwidth * x) % maxIter == 0) {
-          final Rectangle r = getBounds();
-          parent.paint(r);
+        try {
+          if (juliaPreview)
+            julia(px, py);
+        } catch (Exception e) {
+          DLError.report(e);
         }
-      }
-      if ((t != null) && t.isStopped()) {
-        return;
-      }
-    } // for
-
-    if (parent != null) {
-      final Rectangle r = getBounds();
-      parent.paint(r);
+      }, PREVIEW_DELAY, TimeUnit.MILLISECONDS);
     }
-
-  }
-
-  public DLColorModel getModel() {
-    return model;
   }
 
-  public void setModel(DLColorModel model) {
-    this.model = model;
-    stopAll();
-    clearImage();
-    runThreaded();
-  }
-
-  public DLColorModel[] enumModel() {
-    return new DLColorModel[] { model1, model2, model3 };
-  }
-
-  public boolean getPaintInside() {
-    return paintInside;
-  }
-
-  public void setPaintInside(boolean paintInside) {
-    this.paintInside = paintInside;
-    stopAll();
-    clearImage();
-    runThreaded();
+  /*
+   * Renders the preview for the point x, y of the image. The preview is
+   * placed over the corner so its tiles repaint the right part of the
+   * container.
+   */
+  void julia(float x, float y) {
+    View v = view();
+    double cr = v.x.doubleValue() + (x - iwidth / 2) * Math.scalb(v.sx, v.exp);
+    double ci = v.y.doubleValue() + (y - iheight / 2) * Math.scalb(v.sy, v.exp);
+    DLJulia j = julia;
+    if (j == null) {
+      j = new DLJulia();
+      j.iwidth = iwidth / PREVIEW;
+      j.iheight = iheight / PREVIEW;
+      j.maxIter = Math.min(maxIter, 500);
+      j.model = model;
+      j.progressive = false;
+      j.cached = false;
+      julia = j;
+    }
+    j.x = this.x - iwidth / 2 + j.iwidth / 2;
+    j.y = this.y - iheight / 2 + j.iheight / 2;
+    j.parent = parent;
+    j.power = power;
+    j.setC(cr, ci);
   }
 
-  @Override
-  BufferedImage image() {
-    final BufferedImage img = new BufferedImage(iwidth, iheight, BufferedImage.TYPE_INT_ARGB);
-    final Graphics2D g = img.createGraphics();
-    DLUtil.SetHints(g);
-
-    if (threaded)
-      runThreaded(g);
-    else
-      f(g, null);
-    return img;
+  public boolean getJuliaPreview() {
+    return juliaPreview;
   }
 
-  boolean mouse(MouseEvent e) {
-    if (e instanceof MouseWheelEvent) {
-      final MouseWheelEvent mwe = (MouseWheelEvent) e;
-      float x = e.getX() - (this.x - iwidth / 2);
-      float y = e.getY() - (this.y - iheight / 2);
-      final int d = mwe.getWheelRotation();
-      zoom(x, y, d);
-      return true;
-    }
-    switch (e.getID()) {
-    case MouseEvent.MOUSE_DRAGGED:
-      if (lastMousePoint == null)
-        lastMousePoint = e.getPoint();
-      else {
-        final Point p = e.getPoint();
-        final int dx = lastMousePoint.x - p.x;
-        final int dy = lastMousePoint.y - p.y;
-        currentDx -= dx;
-        currentDy -= dy;
-        translate(dx, dy);
-        lastMousePoint = p;
+  public void setJuliaPreview(boolean juliaPreview) {
+    this.juliaPreview = juliaPreview;
+    synchronized (previewLock) {
+      if (!juliaPreview && previewTask != null) {
+        previewTask.cancel(false);
+        previewTask = null;
       }
-      return true;
-    case MouseEvent.MOUSE_PRESSED:
-      lastMousePoint = e.getPoint();
-      translateImage = DLUtil.copy(image, null);
-      currentDx = 0;
-      currentDy = 0;
-      return true;
-    case MouseEvent.MOUSE_RELEASED:
-      lastMousePoint = null;
-      translateImage = null;
-      return true;
-    default:
-      return false;
+    }
+    if (!juliaPreview && julia != null) {
+      julia.stopAll();
+      julia = null;
+      if (parent != null)
+        parent.paint(getBounds());
     }
   }
 
@@ -234,83 +137,6 @@ public class DLMandelbrot extends DLPointImage {
     // setShadow(true);
   }
 
-  void translate(int dx, int dy) {
-    double vx = DLUtil.Normalize(xMin, xMax, 0, iwidth, dx) - DLUtil.Normalize(xMin, xMax, 0, iwidth, 0);
-    double vy = DLUtil.Normalize(yMin, yMax, 0, iheight, dy) - DLUtil.Normalize(yMin, yMax, 0, iheight, 0);
-
-    xMin += vx;
-    xMax += vx;
-    yMin += vy;
-    yMax += vy;
-
-    stopAll();
-    clearImage();
-    runThreaded();
-  }
-
-  public boolean getPaintOutside() {
-    return paintOutside;
-  }
-
-  public void setPaintOutside(boolean paintOutside) {
-    this.paintOutside = paintOutside;
-    stopAll();
-    clearImage();
-    runThreaded();
-  }
-
-  public int getMaxIter() {
-    return maxIter;
-  }
-
-  public void setMaxIter(int maxIter) {
-    this.maxIter = maxIter;
-    stopAll();
-    clearImage();
-    runThreaded();
-  }
-
-  public int[] rangeMaxIter() {
-    return new int[] { 50, 10000 };
-  }
-
-  void zoom(float x, float y, int d) {
-    final double vx = DLUtil.Normalize(xMin, xMax, 0, iwidth, x);
-    final double vy = DLUtil.Normalize(yMin, yMax, 0, iheight, y);
-
-    double zoom;
-
-    if (d > 0)
-      zoom = 0.7;
-    else
-      zoom = 1. / 0.7;
-
-    final double sx = zoom;
-    final double sy = zoom;
-    final double x0 = vx - sx * vx;
-    final double y0 = vy - sy * vy;
-    final AffineTransform tr = new AffineTransform(sx, 0, 0, sy, x0, y0);
-    final Point2D.Double p = new Point2D.Double();
-
-    stopAll();
-
-    p.x = xMin;
-    p.y = yMin;
-    tr.transform(p, p);
-    xMin = p.x;
-    yMin = p.y;
-
-    p.x = xMax;
-    p.y = yMax;
-    tr.transform(p, p);
-    xMax = p.x;
-    yMax = p.y;
-
-    clearImage();
-    runThreaded();
-  }
-
-
   public static void main(String[] a) {
     int s = 300;
     int w = DLUtil.RangeRandom(s,  s * 2);
@@ -6,14 +6,13 @@ import java.util.ArrayList;
 
 import com.jhlabs.image.EdgeFilter;
 
-public class DLMetaball extends DLImage {
+public class DLMetaball extends DLPixelImage {
   int threadSleep = 50;
   int frameCount = 1;
   int numBlobs = 30;
   float deltaT = 5f;
   float colorFactor = 1;
   ArrayList<Blob> blobs;
-  int pixels[];
   boolean edges;
 
   final static String SQUARE = "Square";
@@ -45,7 +44,6 @@ public class DLMetaball extends DLImage {
             DLUtil.RangeRandom(50f, 100f));
         blobs.add(b);
       }
-      pixels = new int[iwidth * iheight];
     }
   }
 
@@ -93,17 +91,6 @@ public class DLMetaball extends DLImage {
     }
   }
 
-  BufferedImage image() {
-    BufferedImage img = new BufferedImage(iwidth, iheight, BufferedImage.TYPE_INT_ARGB);
-    Graphics2D g = img.createGraphics();
-    DLUtil.SetHints(g);
-
-    if (threaded)
-      runThreaded(g);
-
-    return img;
-  }
-
   public void randomize() {
     iwidth = DLUtil.RangeRandom(300, 400);
     iheight = iwidth;
@@ -124,8 +111,10 @@ public class DLMetaball extends DLImage {
   void edges() {
     if (!edges)
       return;
+    BufferedImage b = back();
     EdgeFilter ef = new EdgeFilter();
-    image = ef.filter(image, image);
+    ef.filter(b, b);
+    publish();
   }
 
   void update() {
@@ -148,49 +137,47 @@ public class DLMetaball extends DLImage {
     return r;
   }
 
-  float color(int x, int y) {
+  float color(Blob[] bs, int x, int y) {
     float col = 0;
-    synchronized (blobs) {
-      for (Blob b : blobs) {
-        float dist = 0;
-        switch (distance) {
-        case SQUARE:
-          dist = DLUtil.SquareDist(b.x, b.y, x, y);
-          col += 200 * b.size / dist;
-          break;
-        case MANHATTAN:
-          dist = DLUtil.ManhattanDist(b.x, b.y, x, y);
-          col += 10 * b.size / dist;
-          break;
-        case EUCLIDEAN:
-          dist = DLUtil.EuclideanDist(b.x, b.y, x, y);
-          col += 10 * b.size / dist;
-          break;
-        case ALIEN:
-          dist = DLUtil.AlienDist2(b.x, b.y, x, y);
-          col += 500 * b.size / dist;
-          break;
-        case MINKOWSKI:
-          dist = DLUtil.Minkowski(b.x, b.y, x, y, 3);
-          col += b.size / dist;
-          break;
-        case CUBIC:
-          dist = DLUtil.Cubic(b.x, b.y, x, y);
-          col += 500 * b.size / dist;
-          break;
-        case TCHEBYCHEV:
-          dist = DLUtil.Tchebychev(b.x, b.y, x, y);
-          col += b.size / dist;
-          break;
-        }
+    for (Blob b : bs) {
+      float dist = 0;
+      switch (distance) {
+      case SQUARE:
+        dist = DLUtil.SquareDist(b.x, b.y, x, y);
+        col += 200 * b.size / dist;
+        break;
+      case MANHATTAN:
+        dist = DLUtil.ManhattanDist(b.x, b.y, x, y);
+        col += 10 * b.size / dist;
+        break;
+      case EUCLIDEAN:
+        dist = DLUtil.EuclideanDist(b.x, b.y, x, y);
+        col += 10 * b.size / dist;
+        break;
+      case ALIEN:
+        dist = DLUtil.AlienDist2(b.x, b.y, x, y);
+        col += 500 * b.size / dist;
+        break;
+      case MINKOWSKI:
+        dist = DLUtil.Minkowski(b.x, b.y, x, y, 3);
+        col += b.size / dist;
+        break;
+      case CUBIC:
+        dist = DLUtil.Cubic(b.x, b.y, x, y);
+        col += 500 * b.size / dist;
+        break;
+      case TCHEBYCHEV:
+        dist = DLUtil.Tchebychev(b.x, b.y, x, y);
+        col += b.size / dist;
+        break;
       }
     }
     return col;
   }
 
-  int getColor(int x, int y) {
+  int getColor(Blob[] bs, int x, int y) {
     int col = 0;
-    float fcol = colorFactor * color(x, y);
+    float fcol = colorFactor * color(bs, x, y);
     switch (coloring) {
     case GREY:
       col = greyColor(fcol);
@@ -209,12 +196,13 @@ public class DLMetaball extends DLImage {
   }
 
   void draw() {
-    for (int y = 0, p = 0; y < iheight; y++) {
-      for (int x = 0; x < iwidth; x++, p++) {
-        pixels[p] = getColor(x, y);
-      }
+    final Blob[] bs;
+    synchronized (blobs) {
+      bs = blobs.toArray(new Blob[blobs.size()]);
     }
-    image.setRGB(0, 0, iwidth, iheight, pixels, 0, iwidth);
+    fill((x, y) -> getColor(bs, x, y));
+    if (!edges)
+      publish();
   }
 
   class Blob {
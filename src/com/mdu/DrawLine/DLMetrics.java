@@ -0,0 +1,225 @@
+package com.mdu.DrawLine;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * Per component frame timing. Latencies go in log2 nanosecond histograms,
+ * the instance is published as a platform MXBean under
+ * com.mdu.DrawLine:type=Component while the component sits in a DLContainer.
+ */
+class DLMetrics implements DLMetricsMXBean {
+  static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+  final DLComponent component;
+  final Histogram step = new Histogram();
+  final Histogram paint = new Histogram();
+  final Histogram filter = new Histogram();
+  final Histogram shadow = new Histogram();
+  final Histogram frame = new Histogram();
+  final LongAdder dropped = new LongAdder();
+  final LongAdder allocated = new LongAdder();
+  volatile long lastFrame = 0;
+  ObjectName objectName;
+
+  DLMetrics(DLComponent c) {
+    component = c;
+  }
+
+  static class Histogram {
+    final AtomicLongArray buckets = new AtomicLongArray(64);
+    final LongAdder count = new LongAdder();
+    final LongAdder total = new LongAdder();
+
+    void record(long ns) {
+      if (ns < 0)
+        return;
+      buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(ns | 1));
+      count.increment();
+      total.add(ns);
+    }
+
+    long count() {
+      return count.sum();
+    }
+
+    double mean() {
+      long c = count.sum();
+      return c == 0 ? 0 : (double) total.sum() / c;
+    }
+
+    /*
+     * Upper bound of the bucket holding the p quantile.
+     */
+    double percentile(double p) {
+      long c = count.sum();
+      if (c == 0)
+        return 0;
+      long target = (long) Math.ceil(p * c);
+      long seen = 0;
+      for (int i = 0; i < 64; i++) {
+        seen += buckets.get(i);
+        if (seen >= target)
+          return Math.pow(2, i + 1);
+      }
+      return Math.pow(2, 64);
+    }
+
+    void reset() {
+      for (int i = 0; i < 64; i++)
+        buckets.set(i, 0);
+      count.reset();
+      total.reset();
+    }
+  }
+
+  static long allocated() {
+    if (threadBean instanceof com.sun.management.ThreadMXBean)
+      return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    return 0;
+  }
+
+  void frame() {
+    long now = System.nanoTime();
+    long last = lastFrame;
+    lastFrame = now;
+    if (last != 0)
+      frame.record(now - last);
+  }
+
+  void register() {
+    if (objectName != null)
+      return;
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName n = new ObjectName("com.mdu.DrawLine:type=Component,name=" + ObjectName.quote(getName()));
+      if (!server.isRegistered(n))
+        server.registerMBean(this, n);
+      objectName = n;
+    } catch (Exception e) {
+      DLError.report(e);
+    }
+  }
+
+  void unregister() {
+    if (objectName == null)
+      return;
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      if (server.isRegistered(objectName))
+        server.unregisterMBean(objectName);
+    } catch (Exception e) {
+      DLError.report(e);
+    }
+    objectName = null;
+  }
+
+  static double millis(double ns) {
+    return ns / 1000000.;
+  }
+
+  public String getName() {
+    return component.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(component));
+  }
+
+  public long getFrames() {
+    return Math.max(step.count(), frame.count());
+  }
+
+  public long getFramesDropped() {
+    return dropped.sum();
+  }
+
+  public double getFrameMeanMillis() {
+    return millis(frame.mean());
+  }
+
+  public double getStepMeanMillis() {
+    return millis(step.mean());
+  }
+
+  public double getStepP99Millis() {
+    return millis(step.percentile(0.99));
+  }
+
+  public double getPaintMeanMillis() {
+    return millis(paint.mean());
+  }
+
+  public double getPaintP99Millis() {
+    return millis(paint.percentile(0.99));
+  }
+
+  public double getFilterMeanMillis() {
+    return millis(filter.mean());
+  }
+
+  public double getShadowMeanMillis() {
+    return millis(shadow.mean());
+  }
+
+  public long getAllocatedBytes() {
+    return allocated.sum();
+  }
+
+  public double getAllocatedBytesPerFrame() {
+    long c = step.count();
+    return c == 0 ? 0 : (double) allocated.sum() / c;
+  }
+
+  public void reset() {
+    step.reset();
+    paint.reset();
+    filter.reset();
+    shadow.reset();
+    frame.reset();
+    dropped.reset();
+    allocated.reset();
+  }
+
+  /*
+   * Frame counter / timing line drawn at the bottom left of an image.
+   */
+  void overlay(Graphics2D g, long frameCount, int height, String extra) {
+    double ft = getFrameMeanMillis();
+    if (ft == 0)
+      return;
+    NumberFormat nf = new DecimalFormat("000.00");
+    NumberFormat tf = new DecimalFormat("00.00");
+    NumberFormat ff = new DecimalFormat("00000");
+
+    String s = " F#: " + ff.format(frameCount) + " Fps: " + nf.format(1000. / ft) + " Ft: " + tf.format(ft) + " ms";
+    if (step.count() > 0)
+      s += " St: " + tf.format(getStepMeanMillis()) + " ms";
+    if (dropped.sum() > 0)
+      s += " D#: " + dropped.sum();
+    if (extra != null)
+      s += " " + extra;
+    s += " ";
+
+    Font f = new Font(Font.MONOSPACED, Font.PLAIN, 10);
+    g.setFont(f);
+    FontMetrics m = g.getFontMetrics(f);
+    float w = m.stringWidth(s);
+    float h = m.getMaxAscent() + m.getMaxDescent();
+    Rectangle2D.Float r2d = new Rectangle2D.Float(5, height - h - 5, w, h);
+    Color c = new Color(0x66, 0, 0x33);
+    g.setColor(DLUtil.TransparenterColor(DLUtil.Invert(c), 0.65f));
+    g.fill(r2d);
+    g.setColor(c);
+    g.draw(r2d);
+    g.drawString(s, 5, height - m.getDescent() - 5);
+  }
+}
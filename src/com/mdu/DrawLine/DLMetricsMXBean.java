@@ -0,0 +1,29 @@
+package com.mdu.DrawLine;
+
+public interface DLMetricsMXBean {
+  String getName();
+
+  long getFrames();
+
+  long getFramesDropped();
+
+  double getFrameMeanMillis();
+
+  double getStepMeanMillis();
+
+  double getStepP99Millis();
+
+  double getPaintMeanMillis();
+
+  double getPaintP99Millis();
+
+  double getFilterMeanMillis();
+
+  double getShadowMeanMillis();
+
+  long getAllocatedBytes();
+
+  double getAllocatedBytesPerFrame();
+
+  void reset();
+}
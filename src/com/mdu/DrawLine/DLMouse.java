@@ -4,7 +4,6 @@ import static com.mdu.DrawLine.DLParams.DRAWING_STEP;
 import static java.lang.Integer.MAX_VALUE;
 
 import java.awt.Point;
-import java.awt.Rectangle;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseAdapter;
@@ -87,15 +86,15 @@ class DLMouse extends MouseAdapter implements MouseMotionListener {
     if (con.components == null)
       return null;
     DLComponentList hit = null;
-    final ListIterator<DLComponent> i = con.components.listIterator(con.components.size());
+    final DLComponentList candidates = con.index.query(p);
+    final ListIterator<DLComponent> i = candidates.listIterator(candidates.size());
 
     while (i.hasPrevious()) {
       final DLComponent dlc = i.previous();
       boolean add = false;
-      if (boxOnly) {
-        final Rectangle b = dlc.getBounds();
-        add = b.contains(p);
-      } else
+      if (boxOnly)
+        add = true;
+      else
         add = dlc.hitTest(p);
       if (add)
         if (hit == null) {
@@ -54,6 +54,34 @@ public class DLParticle extends DLImage {
   float maxDisplayForce = 20;
   int maxTrajectoryPoints = 10;
 
+  /*
+   * exact sums the pull of every pair, barnesHut the pull of the cells of a
+   * DLBarnesHut tree seen under the angle theta, the pairs close enough to
+   * collide or link being found on a DLGrid.
+   */
+  static final String EXACT = "exact";
+  static final String BARNES_HUT = "barnesHut";
+  String solver = BARNES_HUT;
+  float theta = 0.5f;
+  final DLBarnesHut tree = new DLBarnesHut();
+  float[] px = new float[0];
+  float[] py = new float[0];
+  float[] pm = new float[0];
+  final float[] acc = new float[2];
+  final DLBarnesHut.Pair pair = (i, j) -> pull(particles.get(i), particles.get(j));
+  final DLGrid grid = new DLGrid();
+
+  /*
+   * exact sums the pull of every particle on each field sample, fft convolves
+   * the masses deposited on the samples with a DLForceField.
+   */
+  static final String FFT = "fft";
+  String fieldSolver = FFT;
+  DLForceField forceField;
+  static final int LUT = 1024;
+  int[] lut;
+  DLColorModel lutModel;
+
   public DLParticle() {
     super();
     initMenuComponent();
@@ -149,6 +177,13 @@ public class DLParticle extends DLImage {
     this.blurFilter = blurFilter;
   }
 
+  /*
+   * pixelSize only matters to the field.
+   */
+  String quality() {
+    return field ? "PixelSize" : null;
+  }
+
   public int getPixelSize() {
     return pixelSize;
   }
@@ -183,6 +218,10 @@ public class DLParticle extends DLImage {
 
   public void setField(boolean field) {
     this.field = field;
+    if (parent != null) {
+      DLQuality.quality.unwatch(this);
+      DLQuality.quality.watch(this);
+    }
   }
 
   public float getG() {
@@ -244,7 +283,49 @@ public class DLParticle extends DLImage {
 
   public int[] rangeNumParticles() {
     return new int[] {
-        1, 100
+        1, 20000
+    };
+  }
+
+  public String getSolver() {
+    return solver;
+  }
+
+  public void setSolver(String solver) {
+    this.solver = solver;
+  }
+
+  public String[] enumSolver() {
+    return new String[] {
+        EXACT, BARNES_HUT
+    };
+  }
+
+  public String getFieldSolver() {
+    return fieldSolver;
+  }
+
+  public void setFieldSolver(String fieldSolver) {
+    this.fieldSolver = fieldSolver;
+  }
+
+  public String[] enumFieldSolver() {
+    return new String[] {
+        EXACT, FFT
+    };
+  }
+
+  public float getTheta() {
+    return theta;
+  }
+
+  public void setTheta(float theta) {
+    this.theta = theta;
+  }
+
+  public float[] rangeTheta() {
+    return new float[] {
+        0, 2
     };
   }
 
@@ -310,10 +391,10 @@ public class DLParticle extends DLImage {
   long frameCount = 0;
 
   public void f(Graphics2D g, DLThread t) {
-    long start = System.currentTimeMillis();
+    long start;
     long dt = 0;
     while (frameCount++ >= 0) {
-      start = System.currentTimeMillis();
+      start = System.nanoTime();
       if (t != null && t.isStopped())
         break;
       clearImage();
@@ -331,7 +412,8 @@ public class DLParticle extends DLImage {
       if (parent != null)
         parent.paint(this);
 
-      dt = System.currentTimeMillis() - start;
+      metrics.step.record(System.nanoTime() - start);
+      dt = (System.nanoTime() - start) / 1000000;
       if (threadSleep > 0) {
         try {
           Thread.sleep(threadSleep);
@@ -384,49 +466,20 @@ public class DLParticle extends DLImage {
     };
   }
 
+  /*
+   * Pull on a sample particle of mass 10 * referenceMass / G every
+   * pixelSize pixels, painted through a palette of the field color model.
+   */
   void field(Graphics2D g, DLThread t) {
     try {
-      for (int i = 0; i < iwidth; i += pixelSize) {
-        for (int j = 0; j < iheight; j += pixelSize) {
-          if (t != null && t.isStopped())
-            return;
-          float fx = 0;
-          float fy = 0;
-          float x = DLUtil.Normalize(minPosX, maxPosX, 0, iwidth, i);
-          float y = DLUtil.Normalize(minPosY, maxPosY, 0, iheight, j);
-          Particle p1 = new Particle(this, x, y, 10 * referenceMass / G, 0, 0, 1, 5, null);
-          for (Particle p : particles) {
-            if (t != null && t.isStopped())
-              return;
-            float dx = p.getX() - p1.getX();
-            float dy = p.getY() - p1.getY();
-            float d2 = dx * dx + dy * dy;
-            // float d = (float) Math.sqrt(d2);
-            float f;
-            float d = DLUtil.FastSqrt(d2);
-            if (useD2) {
-              f = G * p1.mass * p.mass / d2;
-            } else {
-              f = G * p1.mass * p.mass / d; // Should be d2
-            }
-            fx += f * dx / d;
-            fy += f * dy / d;
-            if (t != null && t.isStopped())
-              return;
-          }
-          float f2 = fx * fx + fy * fy;
-          float f = DLUtil.FastSqrt(f2);
-
-          float nv = DLUtil.Normalize(0, 2000, 0, forceRange, f);
-          int iv = colorModel.getColor(nv);
-
-          Color c = new Color(iv); // , iv / 10, iv / 20);
-          g.setColor(c);
-          g.fillRect(i, j, pixelSize, pixelSize);
-          if (t != null && t.isStopped())
-            return;
-        }
-      }
+      int cols = (iwidth + pixelSize - 1) / pixelSize;
+      int rows = (iheight + pixelSize - 1) / pixelSize;
+      float[] f = new float[cols * rows];
+      if (FFT.equals(fieldSolver))
+        fftField(cols, rows, f);
+      else if (exactField(cols, rows, f, t))
+        return;
+      paintField(cols, rows, f);
       if (blurFilter) {
         BoxBlurFilter bf = new BoxBlurFilter();
         bf.setHRadius(pixelSize);
@@ -439,6 +492,80 @@ public class DLParticle extends DLImage {
     }
   }
 
+  boolean exactField(int cols, int rows, float[] field, DLThread t) {
+    float m1 = 10 * referenceMass / G;
+    for (int i = 0; i < cols; i++) {
+      for (int j = 0; j < rows; j++) {
+        if (t != null && t.isStopped())
+          return true;
+        float fx = 0;
+        float fy = 0;
+        float x = DLUtil.Normalize(minPosX, maxPosX, 0, iwidth, i * pixelSize);
+        float y = DLUtil.Normalize(minPosY, maxPosY, 0, iheight, j * pixelSize);
+        for (Particle p : particles) {
+          float dx = p.getX() - x;
+          float dy = p.getY() - y;
+          float d2 = dx * dx + dy * dy;
+          if (d2 == 0)
+            continue;
+          float f;
+          float d = DLUtil.FastSqrt(d2);
+          if (useD2) {
+            f = G * m1 * p.mass / d2;
+          } else {
+            f = G * m1 * p.mass / d; // Should be d2
+          }
+          fx += f * dx / d;
+          fy += f * dy / d;
+        }
+        field[j * cols + i] = DLUtil.FastSqrt(fx * fx + fy * fy);
+      }
+    }
+    return false;
+  }
+
+  void fftField(int cols, int rows, float[] field) {
+    float hx = (maxPosX - minPosX) * pixelSize / iwidth;
+    float hy = (maxPosY - minPosY) * pixelSize / iheight;
+    if (forceField == null || !forceField.fits(cols, rows, hx, hy, useD2))
+      forceField = new DLForceField(cols, rows, hx, hy, useD2);
+    DLForceField ff = forceField;
+    ff.clear();
+    for (Particle p : particles)
+      ff.deposit((p.getX() - minPosX) / hx, (p.getY() - minPosY) / hy, p.mass);
+    ff.solve();
+    float k = 10 * referenceMass;
+    for (int j = 0; j < rows; j++)
+      for (int i = 0; i < cols; i++) {
+        float fx = ff.fx(i, j);
+        float fy = ff.fy(i, j);
+        field[j * cols + i] = k * DLUtil.FastSqrt(fx * fx + fy * fy);
+      }
+  }
+
+  /*
+   * Writes the field colors in the raster, one pixelSize square per sample,
+   * 0 to forceRange spread over the color model from 0 to 2000.
+   */
+  void paintField(int cols, int rows, float[] field) {
+    if (lut == null || lutModel != colorModel) {
+      lut = colorModel.lut(0, 2000, LUT);
+      lutModel = colorModel;
+    }
+    int[] pixels = DLPixelImage.Pixels(image);
+    float scale = (LUT - 1) / forceRange;
+    for (int y = 0; y < iheight; y++) {
+      int o = y * iwidth;
+      int s = y / pixelSize * cols;
+      for (int i = 0; i < cols; i++) {
+        float f = field[s + i] * scale;
+        int c = lut[f < LUT - 1 ? (int) f : LUT - 1];
+        for (int x = i * pixelSize, e = Math.min(x + pixelSize, iwidth); x < e; x++)
+          pixels[o + x] = c;
+      }
+    }
+  }
+
   @Override
   BufferedImage image() {
     final BufferedImage img = new BufferedImage(iwidth, iheight, BufferedImage.TYPE_INT_ARGB);
@@ -474,56 +601,131 @@ public class DLParticle extends DLImage {
     step(g, null);
   }
 
-  boolean step(Graphics2D g, DLThread t) {
-    synchronized (particles) {
-      try {
+  /*
+   * Collision, link and pull of p2 on p1.
+   */
+  void interact(Particle p1, Particle p2) {
+    touch(p1, p2);
+    pull(p1, p2);
+  }
 
-        for (Particle p1 : particles) {
-          p1.fx = 0;
-          p1.fy = 0;
-          p1.linked = null;
-          p1.linkedDistance = Float.MAX_VALUE;
+  void touch(Particle p1, Particle p2) {
+    float dx = p2.getX() - p1.getX();
+    float dy = p2.getY() - p1.getY();
 
-          for (Particle p2 : particles) {
-            if (p1 == p2)
-              continue;
-            if (t != null && t.isStopped())
-              return true;
-            float dx = p2.getX() - p1.getX();
-            float dy = p2.getY() - p1.getY();
+    float d2 = dx * dx + dy * dy;
 
-            float d2 = dx * dx + dy * dy;
+    float d = useD2 ? d2 : DLUtil.FastSqrt(d2);
+    float r = collisionFactor * (p1.radius + p2.radius);
+    if (d < r) {
+      Boum b = boum(p1, p2);
+      synchronized (boums) {
+        boums.add(b);
+      }
+    }
 
-            float d = useD2 ? d2 : DLUtil.FastSqrt(d2);
-            float r = collisionFactor * (p1.radius + p2.radius);
-            if (d < r) {
-              Boum b = boum(p1, p2);
-              synchronized (boums) {
-                boums.add(b);
-              }
-            }
+    if (d < (linkFactor)) {
+      link(p1, p2, d);
+    }
+  }
 
-            if (d < (linkFactor)) {
-              link(p1, p2, d);
-            }
+  void pull(Particle p1, Particle p2) {
+    float dx = p2.getX() - p1.getX();
+    float dy = p2.getY() - p1.getY();
 
-            float f = G * p1.mass * p2.mass / d; // Should be d2
-            float fx = f * dx / d;
-            float fy = f * dy / d;
+    float d2 = dx * dx + dy * dy;
 
-            p1.fx += fx;
-            p1.fy += fy;
+    float d = useD2 ? d2 : DLUtil.FastSqrt(d2);
+    float f = G * p1.mass * p2.mass / d; // Should be d2
+    float fx = f * dx / d;
+    float fy = f * dy / d;
 
-            float nvx = fx * deltaT / p1.mass;
-            float nvy = fy * deltaT / p1.mass;
+    p1.fx += fx;
+    p1.fy += fy;
 
-            p1.nvx += nvx;
-            p1.nvy += nvy;
+    float nvx = fx * deltaT / p1.mass;
+    float nvy = fy * deltaT / p1.mass;
 
-            if (t != null && t.isStopped())
-              return true;
-          }
-        }
+    p1.nvx += nvx;
+    p1.nvy += nvy;
+  }
+
+  void reset(Particle p) {
+    p.fx = 0;
+    p.fy = 0;
+    p.linked = null;
+    p.linkedDistance = Float.MAX_VALUE;
+  }
+
+  boolean exact(DLThread t) {
+    for (Particle p1 : particles) {
+      if (t != null && t.isStopped())
+        return true;
+      reset(p1);
+      for (Particle p2 : particles)
+        if (p1 != p2)
+          interact(p1, p2);
+    }
+    return false;
+  }
+
+  /*
+   * The distances compared to collisionFactor and linkFactor are squared
+   * with useD2, the range of the grid follows.
+   */
+  boolean barnesHut(DLThread t) {
+    int n = particles.size();
+    if (px.length < n) {
+      px = new float[n];
+      py = new float[n];
+      pm = new float[n];
+    }
+    float radius = 0;
+    for (int i = 0; i < n; i++) {
+      Particle p = particles.get(i);
+      px[i] = p.getX();
+      py[i] = p.getY();
+      pm[i] = p.mass;
+      radius = Math.max(radius, p.radius);
+    }
+    tree.build(px, py, pm, n);
+    float range = Math.max(linkFactor, collisionFactor * 2 * radius);
+    if (useD2)
+      range = (float) Math.sqrt(range);
+    float r2 = range * range;
+    if (range > 0)
+      grid.build(px, py, n, range);
+    for (int i = 0; i < n; i++) {
+      if (t != null && t.isStopped())
+        return true;
+      Particle p1 = particles.get(i);
+      reset(p1);
+      if (range > 0) {
+        int k = i;
+        grid.near(px[i], py[i], range, j -> {
+          float dx = px[j] - px[k];
+          float dy = py[j] - py[k];
+          if (j != k && dx * dx + dy * dy < r2)
+            touch(p1, particles.get(j));
+        });
+      }
+      tree.walk(i, px[i], py[i], theta, 0, useD2, pair, acc);
+      float fx = G * p1.mass * acc[0];
+      float fy = G * p1.mass * acc[1];
+      p1.fx += fx;
+      p1.fy += fy;
+      p1.nvx += fx * deltaT / p1.mass;
+      p1.nvy += fy * deltaT / p1.mass;
+    }
+    return false;
+  }
+
+  boolean step(Graphics2D g, DLThread t) {
+    synchronized (particles) {
+      try {
+
+        if (BARNES_HUT.equals(solver) ? barnesHut(t) : exact(t))
+          return true;
 
         for (Particle p : particles) {
           if (t != null && t.isStopped())
@@ -0,0 +1,162 @@
+package com.mdu.DrawLine;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+ * Particles of DLParticles as parallel primitive arrays, particle i being
+ * x[i], y[i], vx[i]... for i in [0, size[. remove() moves the last particle
+ * into the freed slot, so the particles stay packed and a step walks plain
+ * arrays in any number of chunks.
+ *
+ * Emitter threads never touch the arrays: they fill a small store of their
+ * own and stage() it on a lock-free queue, which the stepping thread appends
+ * with flush().
+ *
+ * With trails a trajectable particle owns a slot of them in trail[i], opened
+ * when it comes in and closed when it goes, otherwise trail[i] is -1.
+ */
+class DLParticleStore {
+  int size;
+  float[] x;
+  float[] y;
+  float[] vx;
+  float[] vy;
+  float[] mass;
+  int[] age;
+  /* index in the palette of DLParticles */
+  short[] color;
+  boolean[] trajectable;
+  int[] trail;
+  DLTrails trails;
+  final ConcurrentLinkedQueue<DLParticleStore> staged = new ConcurrentLinkedQueue<DLParticleStore>();
+
+  DLParticleStore() {
+    this(1024);
+  }
+
+  DLParticleStore(int capacity) {
+    this(capacity, null);
+  }
+
+  DLParticleStore(int capacity, DLTrails trails) {
+    this.trails = trails;
+    x = new float[capacity];
+    y = new float[capacity];
+    vx = new float[capacity];
+    vy = new float[capacity];
+    mass = new float[capacity];
+    age = new int[capacity];
+    color = new short[capacity];
+    trajectable = new boolean[capacity];
+    trail = new int[capacity];
+  }
+
+  int size() {
+    return size;
+  }
+
+  void grow(int capacity) {
+    if (capacity <= x.length)
+      return;
+    capacity = Math.max(capacity, 2 * x.length);
+    x = Arrays.copyOf(x, capacity);
+    y = Arrays.copyOf(y, capacity);
+    vx = Arrays.copyOf(vx, capacity);
+    vy = Arrays.copyOf(vy, capacity);
+    mass = Arrays.copyOf(mass, capacity);
+    age = Arrays.copyOf(age, capacity);
+    color = Arrays.copyOf(color, capacity);
+    trajectable = Arrays.copyOf(trajectable, capacity);
+    trail = Arrays.copyOf(trail, capacity);
+  }
+
+  void open(int i) {
+    trail[i] = trails != null && trajectable[i] ? trails.open() : -1;
+  }
+
+  void close(int i) {
+    if (trail[i] >= 0)
+      trails.close(trail[i]);
+  }
+
+  int add(float px, float py, float pvx, float pvy, float m, int a, int c, boolean t) {
+    grow(size + 1);
+    int i = size++;
+    x[i] = px;
+    y[i] = py;
+    vx[i] = pvx;
+    vy[i] = pvy;
+    mass[i] = m;
+    age[i] = a;
+    color[i] = (short) c;
+    trajectable[i] = t;
+    open(i);
+    return i;
+  }
+
+  void remove(int i) {
+    close(i);
+    int l = --size;
+    x[i] = x[l];
+    y[i] = y[l];
+    vx[i] = vx[l];
+    vy[i] = vy[l];
+    mass[i] = mass[l];
+    age[i] = age[l];
+    color[i] = color[l];
+    trajectable[i] = trajectable[l];
+    trail[i] = trail[l];
+  }
+
+  /*
+   * Drops the particles past n.
+   */
+  void truncate(int n) {
+    if (n >= size)
+      return;
+    for (int i = n; i < size; i++)
+      close(i);
+    size = n;
+  }
+
+  void clear() {
+    truncate(0);
+  }
+
+  /*
+   * Removes the particles whose age is over, from the end so that the one
+   * moved into a freed slot has already been looked at.
+   */
+  void compact() {
+    for (int i = size - 1; i >= 0; i--)
+      if (age[i] <= 0)
+        remove(i);
+  }
+
+  /*
+   * Queues the particles of s, from any thread.
+   */
+  void stage(DLParticleStore s) {
+    staged.add(s);
+  }
+
+  void flush() {
+    DLParticleStore s;
+    while ((s = staged.poll()) != null) {
+      int n = s.size;
+      grow(size + n);
+      System.arraycopy(s.x, 0, x, size, n);
+      System.arraycopy(s.y, 0, y, size, n);
+      System.arraycopy(s.vx, 0, vx, size, n);
+      System.arraycopy(s.vy, 0, vy, size, n);
+      System.arraycopy(s.mass, 0, mass, size, n);
+      System.arraycopy(s.age, 0, age, size, n);
+      System.arraycopy(s.color, 0, color, size, n);
+      System.arraycopy(s.trajectable, 0, trajectable, size, n);
+      for (int i = size; i < size + n; i++)
+        open(i);
+      size += n;
+    }
+  }
+}
@@ -8,8 +8,6 @@ import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Cursor;
 import java.awt.Dimension;
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.LinearGradientPaint;
 import java.awt.Paint;
@@ -19,18 +17,15 @@ import java.awt.Shape;
 import java.awt.Toolkit;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
-import java.awt.geom.Line2D;
 import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.stream.IntStream;
 
 import javax.swing.JFrame;
 import javax.swing.SwingUtilities;
@@ -38,7 +33,7 @@ import javax.swing.SwingUtilities;
 import com.jhlabs.image.BoxBlurFilter;
 
 public class DLParticles extends DLPointImage {
-  List<P> particles = Collections.synchronizedList(new ArrayList<P>());
+  DLParticleStore particles = new DLParticleStore(1024, new DLTrails(5));
   List<G> gravitons = Collections.synchronizedList(new ArrayList<G>());
   List<E> emiters = Collections.synchronizedList(new ArrayList<E>());
   boolean fps = true;
@@ -94,6 +89,31 @@ public class DLParticles extends DLPointImage {
   int salve = 3;
   int emitDelay = 50;
 
+  /*
+   * Particles pick their color in a palette drawn from partColor and
+   * colVariance, recolored at once when those change.
+   */
+  static final int COLORS = 256;
+  final Color[] palette = new Color[COLORS];
+  final int[] rgb = new int[COLORS];
+
+  /*
+   * Above PARALLEL particles a step and its painting run in DLPixelImage.BANDS
+   * chunks on the common fork-join pool.
+   */
+  static final int PARALLEL = 4096;
+  boolean parallel = true;
+  float[] gx = new float[0];
+  float[] gy = new float[0];
+  float[] gi = new float[0];
+
+  /*
+   * Trails live in particles.trails, maxTrajectoryPoints for each particle.
+   * POINTS trails are painted from cached paints and shapes.
+   */
+  final DLLongMap<Paint> trailPaints = new DLLongMap<Paint>();
+  Shape[] trailShapes = new Shape[0];
+
   public int getSalve() {
     return salve;
   }
@@ -128,6 +148,9 @@ public class DLParticles extends DLPointImage {
 
   public void setTrajectoryPointSize(float trajectoryPointSize) {
     this.trajectoryPointSize = trajectoryPointSize;
+    synchronized (particles) {
+      clearTrails();
+    }
   }
 
   public float[] rangeTrajectoryPointSize() {
@@ -206,12 +229,7 @@ public class DLParticles extends DLPointImage {
 
   public void setnumInitParticles(int numInitParticles) {
     this.numInitParticles = numInitParticles;
-    synchronized (particles) {
-      while (particles.size() > numInitParticles)
-        particles.remove(0);
-      while (particles.size() < numInitParticles)
-        particles.add(createParticle());
-    }
+    setnumParticles(numInitParticles);
   }
 
   public int[] rangeInitParticle() {
@@ -272,6 +290,7 @@ public class DLParticles extends DLPointImage {
 
   public DLParticles() {
     super();
+    colorizeParticles();
     initParticles();
     initGravitons();
   }
@@ -282,6 +301,7 @@ public class DLParticles extends DLPointImage {
 
   public DLParticles(float x, float y) {
     super(x, y);
+    colorizeParticles();
     initParticles();
     initGravitons();
     initEmiters();
@@ -315,24 +335,10 @@ public class DLParticles extends DLPointImage {
     return new String[] { SEGMENT, POINTS };
   }
 
-  void removeOldParticles() {
-    ArrayList<P> tmp = new ArrayList<P>();
-
-    synchronized (particles) {
-      for (P p : particles)
-        if (p.age-- <= 0)
-          tmp.add(p);
-
-      for (P p : tmp)
-        particles.remove(p);
-    }
-  }
-
   public void f(Graphics2D g, DLThread t) {
-    long start = System.currentTimeMillis();
-    long dt = 0;
+    long start;
     while (frameCount++ >= 0) {
-      start = System.currentTimeMillis();
+      start = System.nanoTime();
       if (t != null && t.isStopped())
         break;
 
@@ -348,11 +354,11 @@ public class DLParticles extends DLPointImage {
         bf.filter(image, image);
       }
 
-      paintAfter(g, dt);
+      paintAfter(g);
 
       if (parent != null)
         parent.paint(this);
-      dt = System.currentTimeMillis() - start;
+      metrics.step.record(System.nanoTime() - start);
       if (threadSleep > 0) {
         try {
           Thread.sleep(threadSleep);
@@ -514,108 +520,127 @@ public class DLParticles extends DLPointImage {
   }
 
   boolean step(Graphics2D g, DLThread t) {
+    if (t != null && t.isStopped())
+      return true;
+    synchronized (particles) {
+      if (particles.trails.length != Math.max(1, maxTrajectoryPoints)) {
+        particles.trails.resize(maxTrajectoryPoints);
+        clearTrails();
+      }
+      particles.flush();
+      int ng;
+      synchronized (gravitons) {
+        ng = gravitons.size();
+        if (gx.length < ng) {
+          gx = new float[ng];
+          gy = new float[ng];
+          gi = new float[ng];
+        }
+        for (int k = 0; k < ng; k++) {
+          G o = gravitons.get(k);
+          gx[k] = o.x;
+          gy[k] = o.y;
+          gi[k] = o.intensity;
+        }
+      }
+      boolean bounce = BOUNCE.equals(mode);
+      boolean toric = TORIC.equals(mode);
+      boolean none = NONE.equals(mode);
+      if (!bounce && !toric && !none)
+        System.err.println("Unkown mode");
+      int n = particles.size();
+      if (parallel && n >= PARALLEL) {
+        int bands = DLPixelImage.BANDS;
+        IntStream.range(0, bands).parallel()
+            .forEach(b -> move(b * n / bands, (b + 1) * n / bands, ng, bounce, toric, none));
+      } else
+        move(0, n, ng, bounce, toric, none);
+      particles.compact();
+    }
+    return false;
+  }
 
-    try {
-
-      ArrayList<P> toRemove = null;
-
-      synchronized (particles) {
-        for (P p : particles) {
-          float fx = 0;
-          float fy = 0;
-          float nvx = 0;
-          float nvy = 0;
-
-          synchronized (gravitons) {
-            for (G fo : gravitons) {
-              float dx = p.x - fo.x;
-              float dy = p.y - fo.y;
-              float d2 = dx * dx + dy * dy;
-              float d = DLUtil.FastSqrt(d2);
-              float f = fo.intensity;
-
-              fx += f * dx / d;
-              fy += f * dy / d;
-
-              float dvx = fx * deltaT / p.mass;
-              float dvy = fy * deltaT / p.mass;
-
-              nvx += dvx;
-              nvy += dvy;
-            }
-          }
-          if (t != null && t.isStopped())
-            return true;
-
-          nvx = nvx + p.vx;
-          nvy = nvy + p.vy;
-          float nx = p.x + nvx * deltaT;
-          float ny = p.y + nvy * deltaT;
-
-          if (t != null && t.isStopped())
-            return true;
-
-          if (BOUNCE.equals(mode)) {
-            if (nx < minPosX) {
-              nx = 2 * minPosX - nx;
-              nvx = -nvx;
-            } else if (nx > maxPosX) {
-              nx = 2 * maxPosX - nx;
-              nvx = -nvx;
-            }
-
-            if (ny < minPosY) {
-              ny = 2 * minPosY - ny;
-              nvy = -nvy;
-            } else if (ny > maxPosY) {
-              ny = 2 * maxPosY - ny;
-              nvy = -nvy;
-            }
-          } else if (TORIC.equals(mode)) {
-            if (nx < minPosX) {
-              nx = maxPosX - (minPosX - nx);
-            }
-            if (nx > maxPosX) {
-              nx = minPosX + nx - maxPosX;
-            }
-            if (ny < minPosY) {
-              ny = maxPosY - (minPosY - ny);
-            }
-            if (ny > maxPosY) {
-              ny = minPosY + ny - maxPosY;
-            }
-          } else if (NONE.equals(mode)) {
-            if (nx < minPosX || nx > maxPosX || ny < minPosY || ny > maxPosY) {
-              p.age = 0; // will be deleted
-            }
-          } else {
-            System.err.println("Unkown mode");
-          }
-          p.moveTo(nx, ny);
-          p.vx = nvx;
-          p.vy = nvy;
-
-          if (p.trajectable)
-            p.addTrajectoryPoint();
+  /*
+   * Moves particles [from, to[ under the pull of the ng gravitons copied in
+   * gx, gy, gi, and counts down their age.
+   */
+  void move(int from, int to, int ng, boolean bounce, boolean toric, boolean none) {
+    DLParticleStore s = particles;
+    for (int i = from; i < to; i++) {
+      float x = s.x[i];
+      float y = s.y[i];
+      float mass = s.mass[i];
+      float fx = 0;
+      float fy = 0;
+      float nvx = 0;
+      float nvy = 0;
+
+      for (int k = 0; k < ng; k++) {
+        float dx = x - gx[k];
+        float dy = y - gy[k];
+        float d2 = dx * dx + dy * dy;
+        float d = DLUtil.FastSqrt(d2);
+        float f = gi[k];
+
+        fx += f * dx / d;
+        fy += f * dy / d;
+
+        float dvx = fx * deltaT / mass;
+        float dvy = fy * deltaT / mass;
+
+        nvx += dvx;
+        nvy += dvy;
+      }
 
-          if (--p.age <= 0) {
-            if (toRemove == null)
-              toRemove = new ArrayList<P>();
-            toRemove.add(p);
-          }
+      nvx = nvx + s.vx[i];
+      nvy = nvy + s.vy[i];
+      float nx = x + nvx * deltaT;
+      float ny = y + nvy * deltaT;
+
+      if (bounce) {
+        if (nx < minPosX) {
+          nx = 2 * minPosX - nx;
+          nvx = -nvx;
+        } else if (nx > maxPosX) {
+          nx = 2 * maxPosX - nx;
+          nvx = -nvx;
+        }
 
-        } // for particles
+        if (ny < minPosY) {
+          ny = 2 * minPosY - ny;
+          nvy = -nvy;
+        } else if (ny > maxPosY) {
+          ny = 2 * maxPosY - ny;
+          nvy = -nvy;
+        }
+      } else if (toric) {
+        if (nx < minPosX) {
+          nx = maxPosX - (minPosX - nx);
+        }
+        if (nx > maxPosX) {
+          nx = minPosX + nx - maxPosX;
+        }
+        if (ny < minPosY) {
+          ny = maxPosY - (minPosY - ny);
+        }
+        if (ny > maxPosY) {
+          ny = minPosY + ny - maxPosY;
+        }
+      } else if (none) {
+        if (nx < minPosX || nx > maxPosX || ny < minPosY || ny > maxPosY) {
+          s.age[i] = 0; // will be deleted
+        }
+      }
+      s.x[i] = nx;
+      s.y[i] = ny;
+      s.vx[i] = nvx;
+      s.vy[i] = nvy;
 
-        if (toRemove != null)
-          for (P p : toRemove)
-            particles.remove(p);
+      if (s.trail[i] >= 0)
+        addTrajectoryPoint(i);
 
-      }
-    } catch (Exception e) {
-      System.err.println(e);
+      s.age[i]--;
     }
-
-    return false;
   }
 
   public String getMode() {
@@ -643,10 +668,9 @@ public class DLParticles extends DLPointImage {
 
   public void setnumParticles(int numParticles) {
     synchronized (particles) {
-      while (particles.size() > numParticles)
-        particles.remove(particles.size() - 1);
+      particles.truncate(numParticles);
       while (particles.size() < numParticles)
-        particles.add(createParticle());
+        createParticle(particles);
     }
   }
 
@@ -670,34 +694,30 @@ public class DLParticles extends DLPointImage {
     }
   }
 
-  P createParticle() {
+  void createParticle(DLParticleStore s) {
     float x = DLUtil.RangeRandom(minPosX, maxPosX);
     float y = DLUtil.RangeRandom(minPosY, maxPosY);
-    return createParticle(x, y);
+    createParticle(s, x, y);
   }
 
-  P createParticle(float x, float y, Color color) {
+  void createParticle(DLParticleStore s, float x, float y) {
     float mass = DLUtil.RangeRandom(minMass, maxMass);
     float v = DLUtil.RangeRandom(minSpeed, maxSpeed);
     float t = DLUtil.RangeRandom(0, DLUtil.TWO_PI);
     float vx = v * DLUtil.Cos(t);
     float vy = v * DLUtil.Sin(t);
-    P p = new P(this, x, y, mass, vx, vy, color);
-    return p;
-  }
-
-  P createParticle(float x, float y) {
-    Color color = particleColor();
-    return createParticle(x, y, color);
+    int age = DLUtil.RangeRandom(50, 500);
+    int color = DLUtil.RangeRandom(0, COLORS);
+    s.add(x, y, vx, vy, mass, age, color, DLUtil.BooleanRandom(TrajectableProba));
   }
 
   void colorizeParticles() {
-    synchronized (particles) {
-      for (P p : particles) {
-        Color color = particleColor();
-        p.paint = color;
-      }
+    for (int i = 0; i < COLORS; i++) {
+      Color color = particleColor();
+      palette[i] = color;
+      rgb[i] = color.getRGB();
     }
+    clearTrails();
   }
 
   Color particleColor() {
@@ -715,7 +735,7 @@ public class DLParticles extends DLPointImage {
   void initParticles() {
     synchronized (particles) {
       for (int i = 0; i < numInitParticles; i++) {
-        particles.add(createParticle());
+        createParticle(particles);
       }
     }
   }
@@ -729,7 +749,7 @@ public class DLParticles extends DLPointImage {
       paintParticles(g);
   }
 
-  void paintAfter(Graphics2D g, long dt) {
+  void paintAfter(Graphics2D g) {
     if (paintMargin)
       paintMargin(g);
     if (paintGraviton)
@@ -737,7 +757,7 @@ public class DLParticles extends DLPointImage {
     if (paintEmiters)
       paintEmiters(g);
     if (fps)
-      paintFps(g, dt);
+      paintFps(g);
   }
 
   void paintMargin(Graphics2D g) {
@@ -767,24 +787,9 @@ public class DLParticles extends DLPointImage {
     g.draw(p);
   }
 
-  void paintFps(Graphics2D g, long frameTime) {
-    if (frameTime == 0)
-      return;
-
-    NumberFormat nf = new DecimalFormat("000.00");
-    NumberFormat tf = new DecimalFormat("00.00");
-    NumberFormat ff = new DecimalFormat("00000");
-
-    Font f = new Font(Font.MONOSPACED, Font.PLAIN, 10);
-    FontMetrics metrics = g.getFontMetrics(f);
-
-    int descent = metrics.getDescent();
-
-    String s = "F#: " + ff.format(frameCount) + " P#: " + particles.size() + " Fps: " + nf.format(1000. / frameTime)
-        + " Ft: " + tf.format(frameTime) + " ms" + " M: " + getMode() + " E#: " + emiters.size() + " G#: "
-        + gravitons.size();
-    g.setColor(Color.darkGray);
-    g.drawString(s, 5, iheight - descent);
+  void paintFps(Graphics2D g) {
+    String extra = "P#: " + particles.size() + " M: " + getMode() + " E#: " + emiters.size() + " G#: " + gravitons.size();
+    metrics.overlay(g, frameCount, iheight, extra);
   }
 
   void paintEmiter(Graphics2D g, E e) {
@@ -860,38 +865,211 @@ public class DLParticles extends DLPointImage {
     }
   }
 
-  void paintParticle(Graphics2D g, P p) {
-    float px = p.x;
+  void paintParticle(Graphics2D g, int i) {
+    float px = particles.x[i];
     float x = DLUtil.Normalize(0, iwidth, minPosX, maxPosX, px);
-    float py = p.y;
+    float py = particles.y[i];
     float y = DLUtil.Normalize(0, iheight, minPosY, maxPosY, py);
-    // g.setPaint(p.paint);
-    setPointFill(p.paint);
+    setPointFill(palette[particles.color[i]]);
     drawPoint(g, x, y);
   }
 
+  /*
+   * Points of size 0 are single pixels, set in the raster.
+   */
+  void plotParticles(int[] pixels, int from, int to) {
+    DLParticleStore s = particles;
+    for (int i = from; i < to; i++) {
+      int x = DLUtil.Int(DLUtil.Normalize(0, iwidth, minPosX, maxPosX, s.x[i]));
+      int y = DLUtil.Int(DLUtil.Normalize(0, iheight, minPosY, maxPosY, s.y[i]));
+      if (x >= 0 && x < iwidth && y >= 0 && y < iheight)
+        pixels[y * iwidth + x] = rgb[s.color[i]];
+    }
+  }
+
   void paintTrajectories(Graphics2D g) {
-    try {
-      synchronized (particles) {
-        for (P p : particles)
-          p.paintTrajectory(g);
+    synchronized (particles) {
+      DLParticleStore s = particles;
+      int n = s.size();
+      if (SEGMENT.equals(trajectories)) {
+        int[] pixels = DLPixelImage.Pixels(image);
+        int h = iheight;
+        if (parallel && n >= PARALLEL) {
+          int bands = DLPixelImage.BANDS;
+          IntStream.range(0, bands).parallel().forEach(b -> plotTrajectories(pixels, b * h / bands, (b + 1) * h / bands));
+        } else
+          plotTrajectories(pixels, 0, h);
+      } else if (POINTS.equals(trajectories)) {
+        for (int i = 0; i < n; i++)
+          if (s.trail[i] >= 0)
+            paintTrajectoryPoints(g, i);
       }
-    } catch (ConcurrentModificationException e) {
-      e.printStackTrace();
     }
   }
 
   void paintParticles(Graphics2D g) {
-    try {
-      synchronized (particles) {
-        for (P p : particles)
-          paintParticle(g, p);
+    synchronized (particles) {
+      int n = particles.size();
+      if (pointSize != 0) {
+        for (int i = 0; i < n; i++)
+          paintParticle(g, i);
+      } else {
+        int[] pixels = DLPixelImage.Pixels(image);
+        if (parallel && n >= PARALLEL) {
+          int bands = DLPixelImage.BANDS;
+          IntStream.range(0, bands).parallel().forEach(b -> plotParticles(pixels, b * n / bands, (b + 1) * n / bands));
+        } else
+          plotParticles(pixels, 0, n);
+      }
+    }
+  }
+
+  void addTrajectoryPoint(int i) {
+    DLParticleStore s = particles;
+    DLTrails t = s.trails;
+    int slot = s.trail[i];
+    float x = s.x[i];
+    float y = s.y[i];
+    int n = t.count(slot);
+    if (n > 0) {
+      float dx = x - t.x(slot, n - 1);
+      float dy = y - t.y(slot, n - 1);
+      if (dx * dx + dy * dy < trajectoryStep)
+        return;
+    }
+    t.add(slot, x, y);
+  }
+
+  /*
+   * Segment trails are antialiased lines blended straight into the raster,
+   * for the rows in [from, to[ only so that bands can run side by side.
+   * Segment j of a trail of n points, from point j to j + 1, oldest first,
+   * has alpha 255 * j / n.
+   */
+  void plotTrajectories(int[] pixels, int from, int to) {
+    DLParticleStore s = particles;
+    DLTrails t = s.trails;
+    for (int i = 0; i < s.size(); i++) {
+      int slot = s.trail[i];
+      if (slot < 0)
+        continue;
+      int n = t.count(slot);
+      int color = rgb[s.color[i]];
+      float lastX = 0;
+      float lastY = 0;
+      for (int j = 0; j < n; j++) {
+        float x = DLUtil.Normalize(0, iwidth, minPosX, maxPosX, t.x(slot, j));
+        float y = DLUtil.Normalize(0, iheight, minPosY, maxPosY, t.y(slot, j));
+        int a = j == 0 ? 0 : 255 * (j - 1) / n;
+        if (a > 0 && Math.abs(lastX - x) < 100 && Math.abs(lastY - y) < 100
+            && Math.max(lastY, y) + 1 >= from && Math.min(lastY, y) - 1 < to)
+          plotSegment(pixels, lastX, lastY, x, y, color, a, from, to);
+        lastX = x;
+        lastY = y;
+      }
+    }
+  }
+
+  /*
+   * Wu's line: one or two pixels across the line for each pixel along it,
+   * sharing the coverage.
+   */
+  void plotSegment(int[] pixels, float x0, float y0, float x1, float y1, int rgb, int a, int from, int to) {
+    boolean steep = Math.abs(y1 - y0) > Math.abs(x1 - x0);
+    if (steep) {
+      float v = x0;
+      x0 = y0;
+      y0 = v;
+      v = x1;
+      x1 = y1;
+      y1 = v;
+    }
+    if (x0 > x1) {
+      float v = x0;
+      x0 = x1;
+      x1 = v;
+      v = y0;
+      y0 = y1;
+      y1 = v;
+    }
+    float grad = x1 == x0 ? 0 : (y1 - y0) / (x1 - x0);
+    int xs = (int) Math.floor(x0);
+    int xe = (int) Math.floor(x1);
+    /* pixel centers are at .5 */
+    float y = y0 + grad * (xs + 0.5f - x0) - 0.5f;
+    for (int x = xs; x <= xe; x++, y += grad) {
+      int iy = (int) Math.floor(y);
+      int c = (int) (a * (y - iy));
+      if (steep) {
+        plot(pixels, iy, x, rgb, a - c, from, to);
+        plot(pixels, iy + 1, x, rgb, c, from, to);
+      } else {
+        plot(pixels, x, iy, rgb, a - c, from, to);
+        plot(pixels, x, iy + 1, rgb, c, from, to);
       }
-    } catch (Exception e) {
-      e.printStackTrace();
     }
   }
 
+  /*
+   * Source over of rgb at alpha a on pixel x, y.
+   */
+  void plot(int[] pixels, int x, int y, int rgb, int a, int from, int to) {
+    if (a <= 0 || x < 0 || x >= iwidth || y < from || y >= to)
+      return;
+    int k = y * iwidth + x;
+    int d = pixels[k];
+    int da = (d >>> 24) * (255 - a) / 255;
+    int oa = a + da;
+    int r = (((rgb >> 16) & 0xff) * a + ((d >> 16) & 0xff) * da) / oa;
+    int g = (((rgb >> 8) & 0xff) * a + ((d >> 8) & 0xff) * da) / oa;
+    int b = ((rgb & 0xff) * a + (d & 0xff) * da) / oa;
+    pixels[k] = oa << 24 | r << 16 | g << 8 | b;
+  }
+
+  /*
+   * Trail point j of n, oldest first, is a 7-gon of radius
+   * trajectoryPointSize / n filled with a gradient that fades by 0.85 for
+   * each point to the newest. Both only depend on the color, n and j and are
+   * built once, around 0, 0.
+   */
+  void paintTrajectoryPoints(Graphics2D g, int k) {
+    DLTrails t = particles.trails;
+    int slot = particles.trail[k];
+    int n = t.count(slot);
+    int c = particles.color[k];
+    if (trailShapes.length <= n)
+      trailShapes = new Shape[t.length + 1];
+    Shape shp = trailShapes[n];
+    if (shp == null)
+      shp = trailShapes[n] = DLUtil.Polygon(0, 0, 7, trajectoryPointSize / n, 0);
+    for (int j = n - 1; j >= 0; j--) {
+      long key = ((long) c * (t.length + 1) + n) * (t.length + 1) + j;
+      Paint p = trailPaints.get(key);
+      if (p == null) {
+        Color col = palette[c];
+        for (int f = j; f < n - 1; f++)
+          col = DLUtil.TransparenterColor(col, 0.85f);
+        p = new RadialGradientPaint(0, 0, trajectoryPointSize / n, new float[] { 0, 1 }, new Color[] { col,
+            DLUtil.TransparentColor(col) });
+        trailPaints.put(key, p);
+      }
+      float x = DLUtil.Normalize(0, iwidth, minPosX, maxPosX, t.x(slot, j));
+      float y = DLUtil.Normalize(0, iheight, minPosY, maxPosY, t.y(slot, j));
+      g.translate(x, y);
+      g.setPaint(p);
+      g.fill(shp);
+      g.translate(-x, -y);
+    }
+  }
+
+  /*
+   * Forgets the paints and shapes of POINTS.
+   */
+  void clearTrails() {
+    trailPaints.clear();
+    trailShapes = new Shape[0];
+  }
+
   void paintGravitons(Graphics2D g) {
     synchronized (gravitons) {
       for (G f : gravitons)
@@ -1005,6 +1183,14 @@ public class DLParticles extends DLPointImage {
   public float[] rangePartColVariance() {
     return new float[] { 0, 1f };
   }
+
+  public boolean getParallel() {
+    return parallel;
+  }
+
+  public void setParallel(boolean parallel) {
+    this.parallel = parallel;
+  }
   
 
   public static void main(String[] a) {
@@ -1056,171 +1242,6 @@ public class DLParticles extends DLPointImage {
   }
 }
 
-class P {
-  float x;
-  float y;
-  float mass;
-  float vx;
-  float vy;
-  long age;
-  DLParticles system;
-  Paint paint;
-  boolean trajectable;
-
-  List<DLPoint> trajectory;
-
-  P(DLParticles system, float x, float y, float mass, float vx, float vy, Paint c) {
-    this.system = system;
-    this.x = x;
-    this.y = y;
-    this.mass = mass;
-    this.vx = vx;
-    this.vy = vy;
-    this.paint = c;
-    this.age = DLUtil.RangeRandom(50, 500);
-    this.trajectable = DLUtil.BooleanRandom(system.TrajectableProba);
-  }
-
-  P(P p) {
-    this.system = p.system;
-    this.x = p.x;
-    this.y = p.y;
-    this.mass = p.mass;
-    this.vx = p.vx;
-    this.vy = p.vy;
-    this.paint = p.paint;
-    this.age = p.age;
-    this.trajectable = p.trajectable;
-  }
-
-  P copy() {
-    return new P(this);
-  }
-
-  P split() {
-    P p = copy();
-
-    p.mass = DLUtil.RangeRandom(1, mass);
-    mass -= p.mass;
-
-    p.vx = DLUtil.RangeRandom(0, vx);
-    vx -= p.vx;
-
-    p.vy = DLUtil.RangeRandom(0, vy);
-    vy -= p.vy;
-
-    this.age = DLUtil.RangeRandom(50, 500);
-    this.trajectable = DLUtil.BooleanRandom(0.95);
-
-    return p;
-  }
-
-  void addTrajectoryPoint() {
-    if (trajectory == null)
-      trajectory = Collections.synchronizedList(new ArrayList<DLPoint>());
-
-    DLPoint dlp = new DLPoint(this.x, this.y, System.currentTimeMillis());
-
-    int s = trajectory.size();
-    if (s > 1) {
-      DLPoint lp = trajectory.get(s - 1);
-      double dx = x - lp.x;
-      double dy = y - lp.y;
-      double d2 = dx * dx + dy * dy;
-      if (d2 < system.trajectoryStep)
-        return;
-    }
-    trajectory.add(dlp);
-    while (trajectory.size() > system.maxTrajectoryPoints)
-      trajectory.remove(0);
-    trajectory.add(dlp);
-  }
-
-  void paintTrajectory(Graphics2D g) {
-
-    if (trajectory == null)
-      return;
-
-    DLParticles s = system;
-    Color c = (Color) paint;
-
-    if (s.trajectories == DLParticles.SEGMENT) {
-      float lastX = 0;
-      float lastY = 0;
-      for (int i = trajectory.size() - 1; i >= 0; i--) {
-        DLPoint pt = trajectory.get(i);
-        float x = DLUtil.Normalize(0, s.iwidth, system.minPosX, system.maxPosX, pt.x);
-        float y = DLUtil.Normalize(0, s.iheight, system.minPosY, system.maxPosY, pt.y);
-        if (i < trajectory.size() - 1) {
-          float dx = lastX - x;
-          float dy = lastY - y;
-          if (dx < 0)
-            dx = -dx;
-          if (dy < 0)
-            dy = -dy;
-          if (dx < 100 && dy < 100) {
-            Line2D.Float l = new Line2D.Float(lastX, lastY, x, y);
-            int tr = (int) DLUtil.Normalize(0, 255, 0, trajectory.size(), i);
-            Color col = new Color(c.getRed(), c.getGreen(), c.getBlue(), tr);
-            g.setColor(col);
-            g.draw(l);
-          }
-          /*
-           * int x1 = (int) lastX; int y1 = (int) lastY; int x2 = (int) x; int
-           * y2 = (int) y; g.setColor(c); g.drawLine(x1, y1, x2, y2); c =
-           * DLUtil.TransparenterColor(c, 0.85f);
-           */
-        }
-        lastX = x;
-        lastY = y;
-      }
-    }
-
-    if (s.trajectories == DLParticles.POINTS) {
-      float sz = DLUtil.Normalize(0, 1, 0, trajectory.size(), s.trajectoryPointSize);
-      for (int i = trajectory.size() - 1; i >= 0; i--) {
-        DLPoint pt = trajectory.get(i);
-        float x = DLUtil.Normalize(0, s.iwidth, system.minPosX, system.maxPosX, pt.x);
-        float y = DLUtil.Normalize(0, s.iheight, system.minPosY, system.maxPosY, pt.y);
-        RadialGradientPaint rdp = new RadialGradientPaint(x, y, sz, new float[] { 0, 1 }, new Color[] { c,
-            DLUtil.TransparentColor(c) });
-        g.setPaint(rdp);
-        Shape shp = DLUtil.Polygon(x, y, 7, sz, 0);
-        g.fill(shp);
-        c = DLUtil.TransparenterColor(c, 0.85f);
-      }
-    }
-  }
-
-  void moveTo(float x, float y) {
-    this.x = x;
-    this.y = y;
-  }
-
-  void avance(float dt) {
-    x = x + vx * dt;
-    y = y + vy * dt;
-  }
-
-  public boolean equals(Object o) {
-    P p = (P) o;
-    int c;
-    c = Float.compare(mass, p.mass);
-    if (c != 0)
-      return false;
-    if (!paint.equals(p.paint))
-      return false;
-    return true;
-  }
-
-  public int hashCode() {
-    int ret = super.hashCode();
-    ret += Float.valueOf(mass).hashCode();
-    ret += paint.hashCode();
-    return ret;
-  }
-}
-
 class PosObject {
   float x;
   float y;
@@ -1280,13 +1301,14 @@ class E extends PosObject {
   }
 
   void emit() {
+    DLParticleStore s = new DLParticleStore(salve);
     int i = salve;
     while (i-- > 0) {
       float ex = E.this.x;
       float ey = E.this.y;
-      P p = system.createParticle(ex, ey);
-      system.particles.add(p);
+      system.createParticle(s, ex, ey);
     }
+    system.particles.stage(s);
   }
 
   void emitThread() {
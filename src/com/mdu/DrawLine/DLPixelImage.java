@@ -0,0 +1,128 @@
+package com.mdu.DrawLine;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/*
+ * Base for images computed pixel by pixel. pixels is the DataBufferInt of the
+ * frame ring's back buffer, so a step writes straight into the image that is
+ * published next and swapping costs no copy nor color conversion. After each
+ * publish pixels points to the new back buffer, which holds an older frame:
+ * subclasses must write every pixel.
+ *
+ * Buffers rewritten every frame would not stay cached in video memory
+ * anyway, so taking their data arrays costs no acceleration.
+ */
+abstract class DLPixelImage extends DLImage {
+  static final int BANDS = 4 * Runtime.getRuntime().availableProcessors();
+
+  int[] pixels;
+
+  /*
+   * Fills the pixels of rows [from, to[.
+   */
+  interface Rows {
+    void fill(int from, int to, int[] pixels);
+  }
+
+  /*
+   * Color of pixel x, y.
+   */
+  interface Shader {
+    int color(int x, int y);
+  }
+
+  DLPixelImage() {
+    super();
+    clear = false;
+  }
+
+  DLPixelImage(float x, float y) {
+    super(x, y);
+    clear = false;
+  }
+
+  /*
+   * TYPE_INT_RGB or TYPE_INT_ARGB_PRE.
+   */
+  int type() {
+    return BufferedImage.TYPE_INT_RGB;
+  }
+
+  static int[] Pixels(BufferedImage img) {
+    return ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+  }
+
+  BufferedImage image() {
+    image = new BufferedImage(iwidth, iheight, type());
+    bind();
+    Graphics2D g = image.createGraphics();
+    DLUtil.SetHints(g);
+
+    if (threaded)
+      runThreaded(g);
+
+    return image;
+  }
+
+  void bind() {
+    pixels = Pixels(frames().back());
+  }
+
+  BufferedImage back() {
+    return frames().back();
+  }
+
+  /*
+   * Publishes what was written in pixels and moves pixels to the next back
+   * buffer. If the ring was rebuilt meanwhile the frame is copied over.
+   */
+  void publish() {
+    if (image == null)
+      return;
+    DLFrameRing r = frames();
+    BufferedImage b = r.back();
+    int[] p = Pixels(b);
+    if (p != pixels && pixels != null && pixels.length == p.length)
+      System.arraycopy(pixels, 0, p, 0, p.length);
+    applyFilter(b);
+    r.swap();
+    pixels = Pixels(r.back());
+  }
+
+  void publish(int[] p) {
+    if (p != pixels)
+      System.arraycopy(p, 0, pixels, 0, Math.min(p.length, pixels.length));
+    publish();
+  }
+
+  void clearImage() {
+    if (pixels == null)
+      return;
+    Arrays.fill(pixels, backgroundColor == null ? 0 : backgroundColor.getRGB());
+  }
+
+  /*
+   * Runs fill over bands of rows in parallel.
+   */
+  void fill(Rows rows) {
+    Fill(pixels, iheight, rows);
+  }
+
+  static void Fill(final int[] p, final int h, final Rows rows) {
+    final int bands = Math.min(h, BANDS);
+    IntStream.range(0, bands).parallel().forEach(b -> rows.fill(b * h / bands, (b + 1) * h / bands, p));
+  }
+
+  void fill(Shader shader) {
+    final int w = iwidth;
+    fill((from, to, p) -> {
+      for (int y = from, i = from * w; y < to; y++)
+        for (int x = 0; x < w; x++, i++)
+          p[i] = shader.color(x, y);
+    });
+  }
+}
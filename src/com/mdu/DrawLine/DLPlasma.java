@@ -1,18 +1,14 @@
 package com.mdu.DrawLine;
 
-import java.awt.Color;
 import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
 
-public class DLPlasma extends DLImage {
-  Color backgroundColor;
+public class DLPlasma extends DLPixelImage {
   int threadSleep = 50;
   int[][] waves = new int[2000][3]; // sine waves
   int[] luma = new int[1024]; // brightness curve
   int[][][] pos = new int[3][2][3]; // positions RGB,XY,123
   float[][][] velocity = new float[3][2][3]; // velocity RGB,XY,123
   int[][][] cWaves = new int[1300][3][2]; // pos,RGB,XY
-  int[] pixels;
   long frameCount = 1;
 
   public DLPlasma() {
@@ -64,18 +60,6 @@ public class DLPlasma extends DLImage {
       iy = (int) ((iy * 255) / ((255 * 4) - (201 * 3)));
       luma[ix] = iy;
     }
-
-    pixels = new int[iwidth * iheight];
-  }
-
-  void clearImage() {
-    if (backgroundColor == null)
-      super.clearImage();
-    else {
-      Graphics2D g = image.createGraphics();
-      g.setColor(backgroundColor);
-      g.fillRect(0, 0, iwidth, iheight);
-    }
   }
 
   public void f(Graphics2D g, DLThread t) {
@@ -101,17 +85,6 @@ public class DLPlasma extends DLImage {
     }
   }
 
-  BufferedImage image() {
-    final BufferedImage img = new BufferedImage(iwidth, iheight, BufferedImage.TYPE_INT_ARGB);
-    final Graphics2D g = img.createGraphics();
-    DLUtil.SetHints(g);
-
-    if (threaded)
-      runThreaded(g);
-
-    return img;
-  }
-
   void step(Graphics2D g) {
     // update velocity
     for (int ix = 0; ix < 3; ix++) {
@@ -149,16 +122,18 @@ public class DLPlasma extends DLImage {
       }
     }
 
-    for (int iy = 0; iy < iheight; iy++) {
-      int xOff = iy * iwidth;
-      for (int ix = 0; ix < iwidth; ix++) {
-        int p = (luma[cWaves[ix][0][0] + cWaves[iy][0][1]] << 16) + (luma[cWaves[ix][1][0] + cWaves[iy][1][1]] << 8)
-            + luma[cWaves[ix][2][0] + cWaves[iy][2][1]];
-        pixels[xOff + ix] = 0xff000000 | p;
+    fill((from, to, pixels) -> {
+      for (int iy = from; iy < to; iy++) {
+        int xOff = iy * iwidth;
+        for (int ix = 0; ix < iwidth; ix++) {
+          int p = (luma[cWaves[ix][0][0] + cWaves[iy][0][1]] << 16) + (luma[cWaves[ix][1][0] + cWaves[iy][1][1]] << 8)
+              + luma[cWaves[ix][2][0] + cWaves[iy][2][1]];
+          pixels[xOff + ix] = 0xff000000 | p;
+        }
       }
-    }
+    });
 
-    image.setRGB(0, 0, iwidth, iheight, pixels, 0, iwidth);
+    publish();
 
   }
 
@@ -0,0 +1,151 @@
+package com.mdu.DrawLine;
+
+import java.lang.reflect.Method;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Adaptive quality. A DLImage may declare one int property, through quality(),
+ * with a get / set / range triple as shown in the DLPropertySheet, where a
+ * larger value is cheaper to render (res, pixelSize, cellSize...). Every
+ * PERIOD the mean step time measured by DLMetrics since the last check is
+ * compared to the frame budget: above it the property goes up one notch,
+ * well below it goes back down, but never below the floor, the value it had
+ * when watched or was last given by someone else. A change is followed by a
+ * few quiet periods so the new setting gets measured before the next move.
+ */
+class DLQuality {
+  static final long PERIOD = 500;
+  static final float HIGH = 1.1f;
+  static final float LOW = 0.5f;
+  static final int COOLDOWN = 2;
+  static final DLQuality quality = new DLQuality();
+
+  final IdentityHashMap<DLImage, Knob> knobs = new IdentityHashMap<DLImage, Knob>();
+  float budget = 1000f / 30;
+  ScheduledFuture<?> task;
+
+  static class Knob {
+    final String name;
+    final Method get;
+    final Method set;
+    final int min;
+    final int max;
+    int floor;
+    int last;
+    long count;
+    long total;
+    int cooldown;
+
+    Knob(String name, Method get, Method set, int min, int max) {
+      this.name = name;
+      this.get = get;
+      this.set = set;
+      this.min = min;
+      this.max = max;
+    }
+  }
+
+  static Method method(Class<?> c, String name, Class<?>... types) {
+    for (; c != null; c = c.getSuperclass())
+      try {
+        Method m = c.getDeclaredMethod(name, types);
+        m.setAccessible(true);
+        return m;
+      } catch (NoSuchMethodException e) {
+      }
+    return null;
+  }
+
+  static Knob knob(DLImage c) {
+    String p = c.quality();
+    if (p == null)
+      return null;
+    Method get = method(c.getClass(), "get" + p);
+    Method set = method(c.getClass(), "set" + p, int.class);
+    Method range = method(c.getClass(), "range" + p);
+    if (get == null || set == null || range == null)
+      return null;
+    try {
+      int[] r = (int[]) range.invoke(c);
+      return new Knob(p, get, set, Math.max(1, r[0]), r[1]);
+    } catch (Exception e) {
+      DLError.report(e);
+      return null;
+    }
+  }
+
+  synchronized void watch(DLImage c) {
+    if (knobs.containsKey(c))
+      return;
+    Knob k = knob(c);
+    if (k == null)
+      return;
+    try {
+      k.floor = k.last = (Integer) k.get.invoke(c);
+    } catch (Exception e) {
+      DLError.report(e);
+      return;
+    }
+    k.count = c.metrics.step.count();
+    k.total = c.metrics.step.total.sum();
+    knobs.put(c, k);
+    if (task == null)
+      task = DLScheduler.getScheduler().executor.scheduleWithFixedDelay(() -> check(), PERIOD, PERIOD,
+          TimeUnit.MILLISECONDS);
+  }
+
+  synchronized void unwatch(DLImage c) {
+    knobs.remove(c);
+    if (knobs.isEmpty() && task != null) {
+      task.cancel(false);
+      task = null;
+    }
+  }
+
+  synchronized void check() {
+    for (Map.Entry<DLImage, Knob> e : knobs.entrySet()) {
+      try {
+        adapt(e.getKey(), e.getValue());
+      } catch (Exception x) {
+        DLError.report(x);
+      }
+    }
+  }
+
+  void adapt(DLImage c, Knob k) throws Exception {
+    long count = c.metrics.step.count();
+    long total = c.metrics.step.total.sum();
+    long n = count - k.count;
+    long t = total - k.total;
+    k.count = count;
+    k.total = total;
+    if (n <= 0 || !c.adaptive || !c.isAnimated())
+      return;
+    if (k.cooldown > 0) {
+      k.cooldown--;
+      return;
+    }
+    int v = (Integer) k.get.invoke(c);
+    if (v != k.last) {
+      /* set from the sheet or a setter since */
+      k.floor = k.last = v;
+      return;
+    }
+    double mean = DLMetrics.millis((double) t / n);
+    int nv = v;
+    if (mean > budget * HIGH && v < k.max)
+      nv = v + 1;
+    else if (mean < budget * LOW && v > Math.max(k.min, k.floor))
+      nv = v - 1;
+    if (nv == v)
+      return;
+    k.set.invoke(c, nv);
+    k.last = nv;
+    k.cooldown = COOLDOWN;
+    if (c.sheet != null)
+      c.sheet.update(k.name, nv);
+  }
+}
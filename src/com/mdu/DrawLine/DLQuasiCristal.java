@@ -3,11 +3,10 @@ package com.mdu.DrawLine;
 import java.awt.Color;
 import java.awt.Graphics2D;
 
-public class DLQuasiCristal extends DLImage {
+public class DLQuasiCristal extends DLPixelImage {
   float dimPix = 0.5f;                       
   int levels = 7;
   float tFactor = 0.3f;
-  int[] pixels;
 
   String colorModelName = "null";
   DLColorModel colorModel = null;
@@ -87,42 +86,39 @@ public class DLQuasiCristal extends DLImage {
     draw(g);
   }
   
-  @Override
-  void setup() {
-    pixels = new int[iwidth * iheight];
-  }
-  
   void draw(Graphics2D g) {
     
-    float t = frameCount * tFactor;
-    int iw2 = iwidth / 2;
-    int ih2 = iheight / 2;
-    int ip = 0;
-
-    for (int yp = -ih2; yp < ih2; yp++) {
-      float y = yp * dimPix;
-
-      for (int xp = -iw2; xp < iw2; xp++) {
-        float x = xp * dimPix;
-
-        float o = 0;
-        float s = 0;
-
-        for (int i = 0; i < levels; i++) {
-          float sin = DLUtil.sin(o);
-          float cos = DLUtil.cos(o);
-          s += (DLUtil.cos(cos * x + sin * y + t) + 1f) / 2f;
-          o += DLUtil.PI / levels;
+    final float t = frameCount * tFactor;
+    final int iw2 = iwidth / 2;
+    final int ih2 = iheight / 2;
+    final float dimPix = this.dimPix;
+    final int levels = this.levels;
+
+    fill((from, to, pixels) -> {
+      for (int yi = from, ip = from * iwidth; yi < to; yi++) {
+        float y = (yi - ih2) * dimPix;
+
+        for (int xi = 0; xi < iwidth; xi++) {
+          float x = (xi - iw2) * dimPix;
+
+          float o = 0;
+          float s = 0;
+
+          for (int i = 0; i < levels; i++) {
+            float sin = DLUtil.sin(o);
+            float cos = DLUtil.cos(o);
+            s += (DLUtil.cos(cos * x + sin * y + t) + 1f) / 2f;
+            o += DLUtil.PI / levels;
+          }
+
+          int is = (int) s;
+          float ds = s - is;
+          s = (is % 2) == 0 ? ds : 1f - ds;
+
+          pixels[ip++] = color(s);
         }
-
-        int is = (int) s;
-        float ds = s - is;
-        s = (is % 2) == 0 ? ds : 1f - ds;
-
-        pixels[ip++] = color(s);
       }
-    }
-    image.setRGB(0, 0, iwidth, iheight, pixels, 0, iwidth);
+    });
   }
 
   int color(float c) {    
@@ -141,11 +137,6 @@ public class DLQuasiCristal extends DLImage {
     }
   }
 
-  public void reset() {
-    super.reset();
-    setup();
-  }
-  
   public void setTFactor(float tf) {
     tFactor = tf;
   }
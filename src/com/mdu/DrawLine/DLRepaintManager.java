@@ -0,0 +1,165 @@
+package com.mdu.DrawLine;
+
+import java.awt.DisplayMode;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+/*
+ * Collects dirty rectangles from the container, merges them once per display
+ * frame and composites them into a persistent back buffer on a single render
+ * thread. Only the merged regions are then copied to the screen.
+ */
+class DLRepaintManager implements Runnable {
+  static final int MAX_RECTANGLES = 16;
+  static final int DEFAULT_REFRESH_RATE = 60;
+
+  final PaintControl control;
+  final ArrayList<Rectangle> dirty = new ArrayList<Rectangle>();
+  volatile BufferedImage buffer;
+  Thread thread;
+  long frameNanos;
+
+  DLRepaintManager(PaintControl control) {
+    this.control = control;
+    frameNanos = 1000000000L / refreshRate();
+  }
+
+  static int refreshRate() {
+    if (GraphicsEnvironment.isHeadless())
+      return DEFAULT_REFRESH_RATE;
+    try {
+      DisplayMode m = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode();
+      int r = m.getRefreshRate();
+      if (r != DisplayMode.REFRESH_RATE_UNKNOWN && r > 0)
+        return r;
+    } catch (Exception e) {
+      DLError.report(e);
+    }
+    return DEFAULT_REFRESH_RATE;
+  }
+
+  void invalidate(Rectangle r) {
+    if (r == null || r.width <= 0 || r.height <= 0)
+      return;
+    synchronized (dirty) {
+      merge(new Rectangle(r));
+      if (thread == null) {
+        thread = new Thread(this, "DLRepaintManager");
+        thread.setDaemon(true);
+        thread.start();
+      }
+      dirty.notify();
+    }
+  }
+
+  /*
+   * Rectangles overlapping or touching an already dirty one are folded into
+   * it. Past MAX_RECTANGLES everything collapses into one bounding box.
+   */
+  void merge(Rectangle r) {
+    boolean merged = true;
+    while (merged) {
+      merged = false;
+      for (int i = dirty.size() - 1; i >= 0; i--) {
+        Rectangle d = dirty.get(i);
+        if (d.contains(r))
+          return;
+        if (d.intersects(r) || touches(d, r)) {
+          dirty.remove(i);
+          r = r.union(d);
+          merged = true;
+        }
+      }
+    }
+    dirty.add(r);
+    if (dirty.size() > MAX_RECTANGLES) {
+      Rectangle u = dirty.get(0);
+      for (Rectangle d : dirty)
+        u = u.union(d);
+      dirty.clear();
+      dirty.add(u);
+    }
+  }
+
+  static boolean touches(Rectangle a, Rectangle b) {
+    return a.x <= b.x + b.width && b.x <= a.x + a.width && a.y <= b.y + b.height && b.y <= a.y + a.height;
+  }
+
+  Rectangle[] take() throws InterruptedException {
+    synchronized (dirty) {
+      while (dirty.isEmpty())
+        dirty.wait();
+      Rectangle[] r = dirty.toArray(new Rectangle[dirty.size()]);
+      dirty.clear();
+      return r;
+    }
+  }
+
+  BufferedImage buffer(int w, int h) {
+    if (buffer == null || buffer.getWidth() < w || buffer.getHeight() < h) {
+      BufferedImage b = new BufferedImage(Math.max(w, 1), Math.max(h, 1), BufferedImage.TYPE_INT_RGB);
+      if (buffer != null) {
+        Graphics2D g = b.createGraphics();
+        g.drawImage(buffer, 0, 0, null);
+        g.dispose();
+      }
+      buffer = b;
+    }
+    return buffer;
+  }
+
+  public void run() {
+    while (true) {
+      try {
+        Rectangle[] rects = take();
+        long start = System.nanoTime();
+        render(rects);
+        long left = frameNanos - (System.nanoTime() - start);
+        if (left > 0)
+          Thread.sleep(left / 1000000, (int) (left % 1000000));
+      } catch (InterruptedException e) {
+        return;
+      } catch (Exception e) {
+        DLError.report(e);
+      }
+    }
+  }
+
+  void render(Rectangle[] rects) {
+    DLContainer dl = control.dl;
+    int w = dl.getWidth();
+    int h = dl.getHeight();
+    if (w <= 0 || h <= 0)
+      return;
+    Rectangle view = new Rectangle(0, 0, w, h);
+    BufferedImage b = buffer(w, h);
+    Graphics2D gb = b.createGraphics();
+    DLUtil.SetHints(gb);
+    Graphics g = dl.getGraphics();
+    for (Rectangle r : rects) {
+      r = r.intersection(view);
+      if (r.isEmpty())
+        continue;
+      gb.setClip(r);
+      control.compose(gb, r);
+      if (g != null)
+        g.drawImage(b, r.x, r.y, r.x + r.width, r.y + r.height, r.x, r.y, r.x + r.width, r.y + r.height, null);
+    }
+    gb.dispose();
+    if (g != null) {
+      g.dispose();
+      Toolkit.getDefaultToolkit().sync();
+    }
+  }
+
+  void blit(Graphics g) {
+    BufferedImage b = buffer;
+    if (b != null)
+      g.drawImage(b, 0, 0, null);
+  }
+}
@@ -17,8 +17,7 @@ import javax.swing.SwingUtilities;
 
 import com.jhlabs.image.EdgeFilter;
 
-public class DLRgbDaze extends DLImage {
-  int[] pixels;
+public class DLRgbDaze extends DLPixelImage {
   private int threadSleep = 50;
   private int frameCount = 0;
   private BufferedImage filterImage;
@@ -94,7 +93,8 @@ public class DLRgbDaze extends DLImage {
         System.err.println(b);
       }
 
-      g = filter(g);
+      filter();
+      publish();
 
       if (parent != null)
         parent.paint(this);
@@ -115,16 +115,8 @@ public class DLRgbDaze extends DLImage {
   }
 
   BufferedImage image() {
-    filterImage = new BufferedImage(iwidth, iheight, BufferedImage.TYPE_INT_ARGB);
-    final BufferedImage img = new BufferedImage(iwidth, iheight, BufferedImage.TYPE_INT_ARGB);
-    final Graphics2D g = img.createGraphics();
-
-    DLUtil.SetHints(g);
-
-    if (threaded)
-      runThreaded(g);
-
-    return img;
+    filterImage = new BufferedImage(iwidth, iheight, type());
+    return super.image();
   }
 
   public void randomize() {
@@ -145,18 +137,13 @@ public class DLRgbDaze extends DLImage {
     return new int[] { 0, 100 };
   }
 
-  Graphics2D filter(Graphics2D g) {
+  void filter() {
     if (filterStrength > 0) {
+      BufferedImage b = back();
       EdgeFilter ef = new EdgeFilter();
-      /* BufferedImage filterImage = */ef.filter(image, filterImage);
-      image = DLUtil.Merge(image, filterImage, filterStrength, null);
-      return image.createGraphics();
+      /* BufferedImage filterImage = */ef.filter(b, filterImage);
+      DLUtil.Merge(b, filterImage, filterStrength, b);
     }
-    return g;
-  }
-
-  void setup() {
-    pixels = new int[iwidth * iheight];
   }
 
   float dist(float x1, float y1, float x2, float y2) {
@@ -196,7 +183,6 @@ public class DLRgbDaze extends DLImage {
       }
     }
     baseDegree += incre;
-    updatePixels(gr);
   }
 
   int color(float r, float g, float b) {
@@ -206,10 +192,6 @@ public class DLRgbDaze extends DLImage {
     return 0xff << 24 | ir << 16 | ig << 8 | ib;
   }
 
-  void updatePixels(Graphics2D gr) {
-    image.setRGB(0, 0, iwidth, iheight, pixels, 0, iwidth);
-  }
-
   public static void main(String[] a) {
     final JFrame frame = new JFrame();
     final DLContainer panel = new DLContainer();
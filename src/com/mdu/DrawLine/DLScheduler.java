@@ -0,0 +1,100 @@
+package com.mdu.DrawLine;
+
+import java.awt.Graphics2D;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Shared animation scheduler. DLImages using the stock frame loop are stepped
+ * on a bounded pool of workers instead of each owning a DLThread. Every
+ * component keeps its own frame period (threadSleep) and late frames are
+ * skipped rather than queued. A DLThread, never started, is kept as the stop
+ * token so stopAll() / isStopped() behave as before.
+ */
+class DLScheduler {
+  static final int WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+  static final DLScheduler scheduler = new DLScheduler(WORKERS);
+
+  final ScheduledThreadPoolExecutor executor;
+
+  DLScheduler(int workers) {
+    final AtomicInteger count = new AtomicInteger();
+    final ThreadFactory factory = (Runnable r) -> {
+      Thread t = new Thread(r, "DLScheduler-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    };
+    executor = new ScheduledThreadPoolExecutor(workers, factory);
+    executor.setRemoveOnCancelPolicy(true);
+  }
+
+  static DLScheduler getScheduler() {
+    return scheduler;
+  }
+
+  Task schedule(DLImage c, Graphics2D g, DLThread t) {
+    Task task = new Task(c, g, t);
+    executor.execute(task);
+    return task;
+  }
+
+  class Task implements Runnable {
+    final DLImage component;
+    final Graphics2D g;
+    final DLThread thread;
+    boolean started = false;
+    long deadline;
+    long frames = 0;
+    long dropped = 0;
+
+    Task(DLImage c, Graphics2D g, DLThread t) {
+      component = c;
+      this.g = g;
+      thread = t;
+      deadline = System.nanoTime();
+    }
+
+    public void run() {
+      if (thread.isStopped()) {
+        component.unschedule(thread);
+        return;
+      }
+      try {
+        if (!started) {
+          component.setup();
+          started = true;
+        }
+        component.frameCount++;
+        component.tick(g);
+        frames++;
+      } catch (Exception e) {
+        DLError.report(e);
+        thread.setStopped(true);
+      }
+      if (thread.isStopped()) {
+        component.unschedule(thread);
+        return;
+      }
+      reschedule();
+    }
+
+    void reschedule() {
+      final long period = TimeUnit.MILLISECONDS.toNanos(Math.max(component.threadSleep, 0));
+      final long now = System.nanoTime();
+      deadline += period;
+      if (deadline < now) {
+        if (period > 0) {
+          long late = (now - deadline) / period + 1;
+          dropped += late;
+          component.metrics.dropped.add(late);
+          deadline += late * period;
+        } else {
+          deadline = now;
+        }
+      }
+      executor.schedule(this, deadline - now, TimeUnit.NANOSECONDS);
+    }
+  }
+}
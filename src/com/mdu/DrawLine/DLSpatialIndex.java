@@ -0,0 +1,167 @@
+package com.mdu.DrawLine;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/*
+ * Uniform grid over the cached bounds of the components of a DLContainer.
+ * Queries only visit the cells a rectangle overlaps and return the hits in
+ * the z-order of the container's DLComponentList. Components spanning more
+ * than MAX_CELLS cells are kept aside and always tested.
+ */
+class DLSpatialIndex {
+  static final int CELL = 128;
+  static final int MAX_CELLS = 256;
+
+  final DLComponentList components;
+  final HashMap<Long, ArrayList<DLComponent>> cells = new HashMap<Long, ArrayList<DLComponent>>();
+  final IdentityHashMap<DLComponent, Rectangle> bounds = new IdentityHashMap<DLComponent, Rectangle>();
+  final ArrayList<DLComponent> large = new ArrayList<DLComponent>();
+  final IdentityHashMap<DLComponent, Integer> order = new IdentityHashMap<DLComponent, Integer>();
+  int version = -1;
+
+  DLSpatialIndex(DLComponentList components) {
+    this.components = components;
+  }
+
+  static long key(int cx, int cy) {
+    return ((long) cx << 32) | (cy & 0xffffffffL);
+  }
+
+  static int cell(int v) {
+    return Math.floorDiv(v, CELL);
+  }
+
+  synchronized void add(DLComponent c, Rectangle r) {
+    if (bounds.containsKey(c))
+      remove(c);
+    r = new Rectangle(r);
+    bounds.put(c, r);
+    int x0 = cell(r.x);
+    int y0 = cell(r.y);
+    int x1 = cell(r.x + r.width);
+    int y1 = cell(r.y + r.height);
+    if ((long) (x1 - x0 + 1) * (y1 - y0 + 1) > MAX_CELLS) {
+      large.add(c);
+      return;
+    }
+    for (int cx = x0; cx <= x1; cx++)
+      for (int cy = y0; cy <= y1; cy++) {
+        Long k = key(cx, cy);
+        ArrayList<DLComponent> l = cells.get(k);
+        if (l == null) {
+          l = new ArrayList<DLComponent>(4);
+          cells.put(k, l);
+        }
+        l.add(c);
+      }
+  }
+
+  synchronized void remove(DLComponent c) {
+    Rectangle r = bounds.remove(c);
+    if (r == null)
+      return;
+    if (large.remove(c))
+      return;
+    int x0 = cell(r.x);
+    int y0 = cell(r.y);
+    int x1 = cell(r.x + r.width);
+    int y1 = cell(r.y + r.height);
+    for (int cx = x0; cx <= x1; cx++)
+      for (int cy = y0; cy <= y1; cy++) {
+        Long k = key(cx, cy);
+        ArrayList<DLComponent> l = cells.get(k);
+        if (l != null) {
+          l.remove(c);
+          if (l.isEmpty())
+            cells.remove(k);
+        }
+      }
+  }
+
+  synchronized void update(DLComponent c, Rectangle r) {
+    Rectangle o = bounds.get(c);
+    if (o == null || o.equals(r))
+      return;
+    add(c, r);
+  }
+
+  synchronized void clear() {
+    cells.clear();
+    bounds.clear();
+    large.clear();
+    order.clear();
+    version = -1;
+  }
+
+  synchronized Rectangle getBounds(DLComponent c) {
+    Rectangle r = bounds.get(c);
+    return r == null ? null : new Rectangle(r);
+  }
+
+  void order() {
+    int v = components.version();
+    if (v == version)
+      return;
+    order.clear();
+    DLComponent[] a = components.toArray(new DLComponent[0]);
+    for (int i = 0; i < a.length; i++)
+      order.put(a[i], i);
+    version = v;
+  }
+
+  /*
+   * Components whose cached bounds intersect r, bottom first.
+   */
+  synchronized DLComponentList query(Rectangle r) {
+    IdentityHashMap<DLComponent, Boolean> found = new IdentityHashMap<DLComponent, Boolean>();
+    for (DLComponent c : large)
+      if (r.intersects(bounds.get(c)))
+        found.put(c, Boolean.TRUE);
+    int x0 = cell(r.x);
+    int y0 = cell(r.y);
+    int x1 = cell(r.x + r.width);
+    int y1 = cell(r.y + r.height);
+    if ((long) (x1 - x0 + 1) * (y1 - y0 + 1) > cells.size()) {
+      for (ArrayList<DLComponent> l : cells.values())
+        collect(l, r, found);
+    } else {
+      for (int cx = x0; cx <= x1; cx++)
+        for (int cy = y0; cy <= y1; cy++) {
+          ArrayList<DLComponent> l = cells.get(key(cx, cy));
+          if (l != null)
+            collect(l, r, found);
+        }
+    }
+    order();
+    DLComponent[] hits = found.keySet().toArray(new DLComponent[found.size()]);
+    Arrays.sort(hits, new Comparator<DLComponent>() {
+      public int compare(DLComponent a, DLComponent b) {
+        return Integer.compare(rank(a), rank(b));
+      }
+    });
+    DLComponentList ret = new DLComponentList();
+    ret.addAll(Arrays.asList(hits));
+    return ret;
+  }
+
+  int rank(DLComponent c) {
+    Integer i = order.get(c);
+    return i == null ? Integer.MAX_VALUE : i;
+  }
+
+  void collect(ArrayList<DLComponent> l, Rectangle r, IdentityHashMap<DLComponent, Boolean> found) {
+    for (DLComponent c : l)
+      if (!found.containsKey(c) && r.intersects(bounds.get(c)))
+        found.put(c, Boolean.TRUE);
+  }
+
+  DLComponentList query(Point p) {
+    return query(new Rectangle(p.x, p.y, 1, 1));
+  }
+}
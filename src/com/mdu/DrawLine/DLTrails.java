@@ -0,0 +1,92 @@
+package com.mdu.DrawLine;
+
+import java.util.Arrays;
+
+/*
+ * Trajectories of at most length points, as rings in one pooled pair of
+ * float arrays: slot s holds its points from s * length on, the oldest at
+ * start[s], and adding to a full slot overwrites that one. Closed slots are
+ * reused before the pool grows. Distinct slots can be written by distinct
+ * threads, open() and close() cannot.
+ */
+class DLTrails {
+  int length;
+  int slots;
+  float[] x = new float[0];
+  float[] y = new float[0];
+  int[] start = new int[0];
+  int[] count = new int[0];
+  int[] free = new int[0];
+  int frees;
+
+  DLTrails(int length) {
+    this.length = Math.max(1, length);
+  }
+
+  int open() {
+    int s;
+    if (frees > 0)
+      s = free[--frees];
+    else {
+      s = slots++;
+      if (s == start.length) {
+        int c = Math.max(64, 2 * s);
+        start = Arrays.copyOf(start, c);
+        count = Arrays.copyOf(count, c);
+        x = Arrays.copyOf(x, c * length);
+        y = Arrays.copyOf(y, c * length);
+      }
+    }
+    start[s] = 0;
+    count[s] = 0;
+    return s;
+  }
+
+  void close(int s) {
+    if (frees == free.length)
+      free = Arrays.copyOf(free, Math.max(64, 2 * frees));
+    free[frees++] = s;
+  }
+
+  /*
+   * Empties every slot and makes room for length points in each.
+   */
+  void resize(int length) {
+    this.length = Math.max(1, length);
+    x = new float[start.length * this.length];
+    y = new float[start.length * this.length];
+    Arrays.fill(start, 0);
+    Arrays.fill(count, 0);
+  }
+
+  void add(int s, float px, float py) {
+    int n = count[s];
+    int k;
+    if (n < length) {
+      k = start[s] + n;
+      count[s] = n + 1;
+    } else {
+      k = start[s];
+      start[s] = k + 1 == length ? 0 : k + 1;
+    }
+    if (k >= length)
+      k -= length;
+    x[s * length + k] = px;
+    y[s * length + k] = py;
+  }
+
+  int count(int s) {
+    return count[s];
+  }
+
+  /*
+   * Point k of slot s, 0 being the oldest.
+   */
+  float x(int s, int k) {
+    return x[s * length + (start[s] + k) % length];
+  }
+
+  float y(int s, int k) {
+    return y[s * length + (start[s] + k) % length];
+  }
+}
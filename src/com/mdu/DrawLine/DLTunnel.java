@@ -1,11 +1,7 @@
 package com.mdu.DrawLine;
 
-import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
-import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.net.URISyntaxException;
@@ -15,7 +11,7 @@ import java.text.NumberFormat;
 
 import com.jhlabs.image.EdgeFilter;
 
-public class DLTunnel extends DLImage {
+public class DLTunnel extends DLPixelImage {
 //  int threadSleep = 20;
   static String textures = "images/textures/";
   static String defaultTexture = "doesnotexist.png";
@@ -25,9 +21,10 @@ public class DLTunnel extends DLImage {
   long frameCount = 1;
   BufferedImage texture;
   BufferedImage mergedTexture;
-  int[][] distances;
-  int[][] angles;
-  int[] pixels;
+  BufferedImage texelSource;
+  int[] texels;
+  int[] distances;
+  int[] angles;
   boolean clearImage = true;
 
   float movement = 0.1f;
@@ -126,13 +123,12 @@ public class DLTunnel extends DLImage {
       texture = loadImage(imageResource, new Dimension(iw, ih));
     if (a || d) {
       if (d)
-        distances = new int[iw][ih];
+        distances = new int[iw * ih];
       if (a)
-        angles = new int[iw][ih];
+        angles = new int[iw * ih];
 
       int textureWidth = texture.getWidth();
       int textureHeight = texture.getHeight();
-      pixels = new int[iw * ih];
       float cx = iw / 2f;
       float cy = ih / 2f;
       for (int x = 0; x < iw; x++) {
@@ -140,9 +136,9 @@ public class DLTunnel extends DLImage {
         for (int y = 0; y < ih; y++) {
           float dy = y - cy;
           if (d)
-            distances[x][y] = (int) ((trente * textureWidth / Math.sqrt(dx * dx + dy * dy)) % textureHeight);
+            distances[x + y * iw] = (int) ((trente * textureWidth / Math.sqrt(dx * dx + dy * dy)) % textureHeight);
           if (a)
-            angles[x][y] = (int) (0.5f * textureWidth * Math.atan2(dy, dx / 2.0f) / DLUtil.PI);
+            angles[x + y * iw] = (int) (0.5f * textureWidth * Math.atan2(dy, dx / 2.0f) / DLUtil.PI);
         }
       }
     }
@@ -209,19 +205,26 @@ public class DLTunnel extends DLImage {
     if (sheet != null)
       sheet.update("MergeStrength", mergeStrength);
     if (mergeStrength > 0) {
+      BufferedImage b = back();
       EdgeFilter ef = new EdgeFilter();
-      /* BufferedImage filterImage = */ef.filter(image, filterImage);
-      image = DLUtil.Merge(image, filterImage, mergeStrength, null);
+      /* BufferedImage filterImage = */ef.filter(b, filterImage);
+      DLUtil.Merge(b, filterImage, mergeStrength, b);
     }
   }
 
-  private void tzoom() {
-    if (res > 1) {
-      zoom(unzoomedImage, zoomedImage);
-      image = zoomedImage;
-    } else {
-      image = unzoomedImage;
+  /*
+   * Pixels of the texture being mapped, fetched once per texture.
+   */
+  int[] texels(BufferedImage t) {
+    if (t != texelSource) {
+      int type = t.getType();
+      if (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_RGB)
+        texels = Pixels(t);
+      else
+        texels = t.getRGB(0, 0, t.getWidth(), t.getHeight(), null, 0, t.getWidth());
+      texelSource = t;
     }
+    return texels;
   }
 
   synchronized void tunnel() {
@@ -230,27 +233,24 @@ public class DLTunnel extends DLImage {
 
     BufferedImage t = (mergedTexture != null) ? mergedTexture : texture;
 
-    int tw = t.getWidth(null);
-    int th = t.getHeight(null);
-
-    int shiftX = (int) (tw + animation);
-    int shiftY = (int) (th + movement);
-    int iw = DLUtil.Int(iwidth / res);
-    int ih = DLUtil.Int(iheight / res);
-    synchronized (pixels) {
-      for (int y = 0, cursor = 0; y < ih; y++) {
-        for (int x = 0; x < iw; x++, cursor++) {
-          int c_x = (distances[x][y] + shiftX) % tw;
-          int c_y = (angles[x][y] + shiftY) % th;
-          try {
-            pixels[cursor] = t.getRGB(c_x, c_y);
-          } catch (Exception e) {
-           DLError.report(e);
-          }
-        }
+    final int tw = t.getWidth(null);
+    final int th = t.getHeight(null);
+    final int[] tp = texels(t);
+
+    final int shiftX = Math.floorMod((int) (tw + animation), tw);
+    final int shiftY = Math.floorMod((int) (th + movement), th);
+    final int iw = DLUtil.Int(iwidth / res);
+    final int ih = DLUtil.Int(iheight / res);
+    int[] p = res > 1 ? Pixels(unzoomedImage) : pixels;
+    Fill(p, ih, (from, to, out) -> {
+      for (int cursor = from * iw; cursor < to * iw; cursor++) {
+        int c_x = (distances[cursor] + shiftX) % tw;
+        int c_y = Math.floorMod(angles[cursor] + shiftY, th);
+        out[cursor] = tp[c_x + c_y * tw];
       }
-      unzoomedImage.setRGB(0, 0, iw, ih, pixels, 0, iw);
-    }
+    });
+    if (res > 1)
+      zoom(unzoomedImage, back());
   }
 
   void move() {
@@ -283,8 +283,7 @@ public class DLTunnel extends DLImage {
       move();
       tunnel();
       merge();
-      tzoom();
-      paintFps(g, 0);
+      paintFps();
     }
   }
   
@@ -292,67 +291,38 @@ public class DLTunnel extends DLImage {
     setup(true, true, true);
   }
   
-  void paintFps(Graphics2D g, long frameTime) {
-
+  void paintFps() {
     if (!paintFPS)
       return;
-    if (frameTime == 0)
-      return;
 
+    Graphics2D g = back().createGraphics();
     DLUtil.SetHints(g);
 
-    String s = null;
-    Font f = new Font(Font.MONOSPACED, Font.PLAIN, 10);
-    FontMetrics metrics = g.getFontMetrics(f);
-    int descent = metrics.getDescent();
-
-    if (currentTexture != null && currentRatio != 0) {
-      NumberFormat ft = new DecimalFormat("0.00");
-      s = "Loading " + currentTextureName + " " + ft.format(currentRatio);
-    } else {
-      NumberFormat nf = new DecimalFormat("000.00");
-      NumberFormat tf = new DecimalFormat("00.00");
-      NumberFormat ff = new DecimalFormat("00000");
-
-      s = "F#: " + ff.format(frameCount) + " Fps: " + nf.format(1000. / frameTime) + " Ft: " + tf.format(frameTime)
-          + " ms " + "Mi: " + tf.format(movIncr) + " Ai: " + tf.format(animIncr);
-    }
-    FontMetrics m = g.getFontMetrics();
-    float w = m.stringWidth(s);
-    float h = m.getMaxAscent() + m.getMaxDescent();
-    float x = 5;
-    float y = iheight - h - 5;
-    Rectangle2D.Float r2d = new Rectangle2D.Float(x, y, w, h);
-    Color c = new Color(0x66, 0, 0x33);
-    g.setColor(DLUtil.TransparenterColor(DLUtil.Invert(c), 0.65f));
-    g.fill(r2d);
-    g.setColor(c);
-    g.draw(r2d);
-    g.setFont(f);
-    g.drawString(s, 5, iheight - descent - 5);
+    NumberFormat tf = new DecimalFormat("00.00");
+    String s;
+    if (currentTexture != null && currentRatio != 0)
+      s = "Loading " + currentTextureName + " " + tf.format(currentRatio);
+    else
+      s = "Mi: " + tf.format(movIncr) + " Ai: " + tf.format(animIncr);
+    metrics.overlay(g, frameCount, iheight, s);
+    g.dispose();
   }
 
   BufferedImage filterImage;
   BufferedImage unzoomedImage;
-  BufferedImage zoomedImage;
 
-  BufferedImage image() {
+  void images() {
     int iw = DLUtil.Int(iwidth / res);
     int ih = DLUtil.Int(iheight / res);
     if (filterImage == null)
-      filterImage = new BufferedImage(iw, ih, BufferedImage.TYPE_INT_ARGB);
+      filterImage = new BufferedImage(iwidth, iheight, type());
     if (unzoomedImage == null)
-      unzoomedImage = new BufferedImage(iw, ih, BufferedImage.TYPE_INT_ARGB);
-    if (zoomedImage == null)
-      zoomedImage = new BufferedImage(iwidth, iheight, BufferedImage.TYPE_INT_ARGB);
-
-    Graphics2D g = unzoomedImage.createGraphics();
-    DLUtil.SetHints(g);
+      unzoomedImage = new BufferedImage(iw, ih, type());
+  }
 
-    if (threaded)
-      runThreaded(g);
-    image = zoomedImage;
-    return zoomedImage;
+  BufferedImage image() {
+    images();
+    return super.image();
   }
 
   public void randomize() {
@@ -544,8 +514,26 @@ public class DLTunnel extends DLImage {
   }
 
   public void setRes(int res) {
-    this.res = res;
-    reset();
+    if (image == null) {
+      this.res = res;
+      return;
+    }
+    /*
+     * Swap the buffers in place, the running loop keeps going at the new
+     * resolution.
+     */
+    synchronized (this) {
+      this.res = res;
+      setup(true, true, true);
+      filterImage = null;
+      unzoomedImage = null;
+      currentTexture = null;
+      images();
+    }
+  }
+
+  String quality() {
+    return "Res";
   }
 
   public int getRes() {
@@ -563,7 +551,6 @@ public class DLTunnel extends DLImage {
     setup(true, true, true);
     filterImage = null;
     unzoomedImage = null;
-    zoomedImage = null;
     currentTexture = null;
     image();
   }
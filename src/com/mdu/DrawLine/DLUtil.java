@@ -68,7 +68,7 @@ public class DLUtil {
       DLCross.class, DLLorem.class, DLDragon.class/* , DLMap.class */));
 
   static ArrayList<Class<? extends DLComponent>> imageList = new ArrayList<Class<? extends DLComponent>>(Arrays.asList(
-      DLPshit.class, DLNoise.class, DLTexture.class, DLFougere.class, DLMandelbrot.class, DLPlante.class,
+      DLPshit.class, DLNoise.class, DLTexture.class, DLFougere.class, DLMandelbrot.class, DLJulia.class, DLPlante.class,
       DLParticle.class, DLWater.class, DLParticles.class, DLLife.class, DLVoronoi.class, DLQRCode.class,
       DLDelaunay.class, DLWave.class, DLTunnel.class, DLPlasma.class, DLSub.class, DLWords.class, DLMetaball.class,
       DLKaleidoscope.class, DLFougere.class, DLKaleidoscope.class, DLQuasiCristal.class, DLChess.class,
@@ -87,6 +87,15 @@ public class DLUtil {
   static final float SQRT2 = (float) Math.sqrt(2);
   static final float E = (float) Math.E;
 
+  /*
+   * Source of every random helper below, reseeded for reproducible runs.
+   */
+  static Random random = new Random();
+
+  static synchronized void Seed(long seed) {
+    random = new Random(seed);
+  }
+
   static DLColorModel ColorModel1 = new DLColorModel("model1", new int[] {
     0xff0000, 0x00ff00, 0x0000ff
   }, new float[] {
@@ -148,7 +157,7 @@ public class DLUtil {
     return FastSqrt(s);
   }
 
-  static synchronized float FastSqrt(float x) {
+  static float FastSqrt(float x) {
     return Float.intBitsToFloat(532483686 + (Float.floatToRawIntBits(x) >> 1));
   }
 
@@ -348,7 +357,7 @@ public class DLUtil {
   }
 
   static synchronized void shuffleArray(int[] ar) {
-    Random rnd = new Random();
+    Random rnd = random;
     for (int i = ar.length - 1; i > 0; i--) {
       int index = rnd.nextInt(i + 1);
       // Simple swap
@@ -359,7 +368,7 @@ public class DLUtil {
   }
 
   static synchronized void shuffleArray(int[][] ar) {
-    Random rnd = new Random();
+    Random rnd = random;
     for (int i = ar.length - 1; i > 0; i--) {
       int index = rnd.nextInt(i + 1);
       // Simple swap
@@ -539,11 +548,11 @@ public class DLUtil {
   }
 
   static synchronized boolean BooleanRandom(double med) {
-    return Math.random() > med;
+    return random.nextDouble() > med;
   }
 
   static float Random() {
-    return (float) Math.random();
+    return (float) random.nextDouble();
   }
 
   static Color GetGrey(float i) {
@@ -866,7 +875,7 @@ public class DLUtil {
   }
 
   static synchronized double ExpRandom(double l) {
-    final double x = Math.random();
+    final double x = random.nextDouble();
     return Math.log(x) / l;
   }
 
@@ -932,11 +941,11 @@ public class DLUtil {
 
     hasSpare = true;
 
-    rand1 = Math.random();
+    rand1 = random.nextDouble();
     if (rand1 < 1e-10)
       rand1 = 1e-10;
     rand1 = -2. * Math.log(rand1);
-    rand2 = Math.random() * TWO_PI;
+    rand2 = random.nextDouble() * TWO_PI;
 
     return Math.sqrt(variance * rand1) * Math.cos(rand2);
   }
@@ -946,26 +955,26 @@ public class DLUtil {
     return (float) ((max - min) * v + min);
   }
 
-  static synchronized float Normalize(float v, float start, float stop) {
+  static float Normalize(float v, float start, float stop) {
     return (v - start) / (stop - start);
   }
 
-  static synchronized int Normalize(int min, int max, int minVal, int maxVal, int val) {
+  static int Normalize(int min, int max, int minVal, int maxVal, int val) {
     final float v = ((float) val - (float) minVal) / ((float) maxVal - (float) minVal);
     return (int) (((float) max - (float) min) * v + (float) min);
   }
 
-  static synchronized double Normalize(double min, double max, double minVal, double maxVal, double val) {
+  static double Normalize(double min, double max, double minVal, double maxVal, double val) {
     final double v = (val - minVal) / (maxVal - minVal);
     return (max - min) * v + min;
   }
 
-  static synchronized float Normalize(float min, float max, float minVal, float maxVal, float val) {
+  static float Normalize(float min, float max, float minVal, float maxVal, float val) {
     float v = (val - minVal) / (maxVal - minVal);
     return (max - min) * v + min;
   }
 
-  static synchronized float Normalize2(float min, float max, float minVal, float maxVal, float val) {
+  static float Normalize2(float min, float max, float minVal, float maxVal, float val) {
     final float v = (val - minVal) / (maxVal - minVal);
     return (max - min) * v + min;
   }
@@ -1145,9 +1154,9 @@ public class DLUtil {
   }
 
   static synchronized Color RandomColor(float mh, float Mh, float ms, float Ms, float mb, float Mb) {
-    final float h = (float) ((Mh - mh) * Math.random() + mh);
-    final float s = (float) ((Ms - ms) * Math.random() + ms);
-    final float b = (float) ((Mb - mb) * Math.random() + mb);
+    final float h = (float) ((Mh - mh) * random.nextDouble() + mh);
+    final float s = (float) ((Ms - ms) * random.nextDouble() + ms);
+    final float b = (float) ((Mb - mb) * random.nextDouble() + mb);
     final int rgb = Color.HSBtoRGB(h, s, b);
     final Color c = new Color(rgb);
     return c;
@@ -1158,15 +1167,15 @@ public class DLUtil {
   }
 
   static synchronized double RandomGauss(double m, double s) {
-    final float u = (float) Math.random();
-    final float v = (float) Math.random();
+    final float u = (float) random.nextDouble();
+    final float v = (float) random.nextDouble();
     final double n = m + s * Math.sqrt(-2 * Math.log(u)) * Math.cos(TWO_PI * v);
     return n;
   }
 
   static synchronized float RandomGauss(float m, float s) {
-    final float u = (float) Math.random();
-    final float v = (float) Math.random();
+    final float u = (float) random.nextDouble();
+    final float v = (float) random.nextDouble();
     final float n = m + s * FastSqrt(-2 * FastLog(u)) * Cos(TWO_PI * v);
     return (float) n;
   }
@@ -1209,7 +1218,7 @@ public class DLUtil {
   }
 
   static synchronized double RangeRandom(double min, double max) {
-    return (max - min) * Math.random() + min;
+    return (max - min) * random.nextDouble() + min;
   }
 
   static synchronized float RandomAngle() {
@@ -1217,7 +1226,7 @@ public class DLUtil {
   }
 
   static synchronized float RangeRandom(float min, float max) {
-    return (float) ((max - min) * Math.random() + min);
+    return (float) ((max - min) * random.nextDouble() + min);
   }
 
   static synchronized int RangeRandom(int m) {
@@ -1229,7 +1238,7 @@ public class DLUtil {
   }
 
   static synchronized int RangeRandom(int min, int max) {
-    return (int) (((max - min) * Math.random()) + min);
+    return (int) (((max - min) * random.nextDouble()) + min);
   }
 
   static synchronized String ReadFile(String name) {
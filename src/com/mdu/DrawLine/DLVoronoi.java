@@ -10,15 +10,12 @@ import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Composite;
 import java.awt.Font;
-import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Paint;
 import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 
 import com.jhlabs.image.BoxBlurFilter;
 import com.jhlabs.image.EdgeFilter;
@@ -52,6 +49,20 @@ public class DLVoronoi extends DLPointImage {
   float teleportRange = 100f;
   float distFactor = 20;
   boolean flatVoronoi = false;
+  final DLGrid grid = new DLGrid();
+  float[] sx = new float[0];
+  float[] sy = new float[0];
+  int pi;
+  int pj;
+  int nearest;
+  float dNearest;
+  final DLGrid.Visitor closer = k -> {
+    float d = dist(sx[k] - pi, sy[k] - pj);
+    if (d < dNearest || d == dNearest && k < nearest) {
+      nearest = k;
+      dNearest = d;
+    }
+  };
 
   public DLVoronoi() {
     super();
@@ -251,23 +262,9 @@ public class DLVoronoi extends DLPointImage {
     }
   }
 
-  void paintFps(Graphics2D g, long frameTime) {
-    if (frameTime == 0)
-      return;
-
-    NumberFormat nf = new DecimalFormat("000.00");
-    NumberFormat tf = new DecimalFormat("00.00");
-    NumberFormat ff = new DecimalFormat("00000");
-
-    Font f = new Font(Font.MONOSPACED, Font.PLAIN, 10);
-    FontMetrics metrics = g.getFontMetrics(f);
-
-    int descent = metrics.getDescent();
-
-    String s = "F#: " + ff.format(frameCount) + " S#: " + sites.size() + " Fps: " + nf.format(1000. / frameTime)
-        + " Ft: " + tf.format(frameTime) + " ms" + " M: " + getDistance();
-    g.setColor(Color.darkGray);
-    g.drawString(s, 5, iheight - descent);
+  void paintFps(Graphics2D g) {
+    String extra = "S#: " + sites.size() + " M: " + getDistance();
+    metrics.overlay(g, frameCount, iheight, extra);
   }
 
   void clearImage() {
@@ -294,10 +291,9 @@ public class DLVoronoi extends DLPointImage {
       init();
       inited = true;
     }
-    long start = System.currentTimeMillis();
-    long dt = 0;
+    long start;
     while (frameCount++ > 0) {
-      start = System.currentTimeMillis();
+      start = System.nanoTime();
       if (t != null && t.isStopped())
         break;
 
@@ -327,12 +323,12 @@ public class DLVoronoi extends DLPointImage {
         if (paintSites)
           paintSites(g);
         if (paintFps)
-          paintFps(g, dt);
+          paintFps(g);
       }
 
       if (parent != null)
         parent.paint(this);
-      dt = System.currentTimeMillis() - start;
+      metrics.step.record(System.nanoTime() - start);
       if (threadSleep > 0) {
         try {
           Thread.sleep(threadSleep);
@@ -373,9 +369,11 @@ public class DLVoronoi extends DLPointImage {
   }
 
   float dist(int i, int j, DLPoint p) {
+    return dist(p.x - i, p.y - j);
+  }
+
+  float dist(float dx, float dy) {
     float d = Float.NaN;
-    float dx = p.x - i;
-    float dy = p.y - j;
     switch (distance) {
     case EUCLIDEAN:
       d = dx * dx + dy * dy;
@@ -397,23 +395,49 @@ public class DLVoronoi extends DLPointImage {
     return d;
   }
 
+  /*
+   * Index of the site closest to i, j. The rings of the grid are searched
+   * outwards until the sites left are farther than the closest one seen,
+   * none of the distances being smaller than the one of the larger
+   * coordinate alone.
+   */
+  int nearest(int i, int j) {
+    pi = i;
+    pj = j;
+    nearest = -1;
+    dNearest = Float.MAX_VALUE;
+    for (int k = 0;; k++) {
+      if (!grid.ring(i, j, k, closer)) {
+        for (int s = 0; s < sites.size(); s++)
+          closer.visit(s);
+        break;
+      }
+      if (nearest >= 0 && dist(grid.reach(i, j, k), 0) > dNearest)
+        break;
+    }
+    return nearest;
+  }
+
   void voronoi(Graphics2D g) {
     synchronized (sites) {
+      int n = sites.size();
+      if (n == 0)
+        return;
+      if (sx.length < n) {
+        sx = new float[n];
+        sy = new float[n];
+      }
+      for (int k = 0; k < n; k++) {
+        sx[k] = sites.get(k).x;
+        sy[k] = sites.get(k).y;
+      }
+      grid.build(sx, sy, n, Math.max(1, (float) Math.sqrt((float) iwidth * iheight / n)));
       int ps = pixelSize;
       if (ps == 0)
         ps = 1;
       for (int i = 0; i < iwidth; i += ps) {
         for (int j = 0; j < iheight; j += ps) {
-          float dMin = Float.MAX_VALUE;
-          DLPoint ni = null;
-          for (int k = 0; k < sites.size(); k++) {
-            DLPoint p = sites.get(k);
-            float d = dist(i, j, p);
-            if (d < dMin) {
-              ni = p;
-              dMin = d;
-            }
-          }
+          DLPoint ni = sites.get(nearest(i, j));
           if (flatVoronoi) {
             setPointFill(ni.paint);
             g.setPaint(ni.paint);
@@ -510,6 +534,10 @@ public class DLVoronoi extends DLPointImage {
     return new float[] { 0, 50 };
   }
 
+  String quality() {
+    return "PixelSize";
+  }
+
   public int getPixelSize() {
     return pixelSize;
   }
@@ -19,7 +19,6 @@ import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
-import java.awt.geom.Rectangle2D;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -334,15 +333,7 @@ class DrawLine extends JFrame {
   }
 
   Rectangle moveComponent(DLComponent c, int dx, int dy) {
-    final Rectangle r1 = c.getBounds();
-
-    if (c.getMovableProxy() != null)
-      c.getMovableProxy().move(dx, dy);
-    else
-      c.move(dx, dy);
-    final Rectangle r2 = c.getBounds();
-    final Rectangle r = new Rectangle();
-    Rectangle2D.union(r1, r2, r);
+    final Rectangle r = canvas.move(c, dx, dy);
     if (canvas.paintControl.painting) {
       final Graphics g = getPanel().getGraphics();
       canvas.paintControl.paint(r, g);
@@ -6,15 +6,15 @@ import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
-import java.awt.image.BufferedImage;
 import java.util.Iterator;
 
 class PaintControl {
   DLContainer dl;
   boolean painting = true;
   Rectangle rectangle = null;
+  DLRepaintManager repaintManager = new DLRepaintManager(this);
+  DLLayerCache layer = new DLLayerCache(this);
 
   PaintControl(DLContainer dl) {
     this.dl = dl;
@@ -59,33 +59,33 @@ class PaintControl {
   }
 
   void paint(DLComponent c, Graphics g) {
-    DLUtil.SetHints(g);
     Rectangle r = c.getBounds();
+    dl.reindex(c, r);
+    if (!c.isAnimated())
+      layer.invalidate(r);
 
-    if (g != null && isPainting()) {
-      BufferedImage image = null;
-      image = new BufferedImage(r.width, r.height, BufferedImage.TYPE_INT_RGB);
-
-      Graphics2D gi = image.createGraphics();
-      Color col = dl.getBackground(); // .getPanel().getBackground();
-      gi.setColor(col);
-      gi.fillRect(0, 0, r.width, r.height);
-      AffineTransform tr = AffineTransform.getTranslateInstance(-r.x, -r.y);
-      gi.setTransform(tr);
-      DLUtil.SetHints(gi);
-
-      final DLComponentList copy = dl.components.copy();
-      final Iterator<DLComponent> i = copy.iterator();
-      while (i.hasNext()) {
-        final DLComponent dlc = i.next();
-        if (r.intersects(dlc.getBounds()))
-          dlc.paint(gi);
-      }
-      g.drawImage(image, r.x, r.y, null);
-    } else
+    if (g != null && isPainting())
+      repaintManager.invalidate(r);
+    else
       addRectangle(r);
   }
 
+  /*
+   * Part r of c changed: like paint(c, g), the static layer is left alone
+   * when c is animated.
+   */
+  void paint(DLComponent c, Rectangle r, Graphics g) {
+    if (c.isAnimated()) {
+      if (g == null)
+        return;
+      if (isPainting())
+        repaintManager.invalidate(r);
+      else
+        addRectangle(r);
+    } else
+      paint(r, g);
+  }
+
   void paint(Rectangle r, Graphics g) {
     if(r == null)
       return;
@@ -93,32 +93,35 @@ class PaintControl {
       return;
     if (r.width > 100000 || r.height > 100000)
       return;
+    layer.invalidate(r);
     if (g == null)
       return;
-    DLUtil.SetHints(g);
-    if (isPainting()) {
-      BufferedImage image = new BufferedImage(r.width, r.height, BufferedImage.TYPE_INT_RGB);
-      Color c = dl.getBackground(); // getPanel().getBackground();
-      Graphics2D gi = image.createGraphics();
-      gi.setColor(c);
-      gi.fillRect(0, 0, r.width, r.height);
-
-      final AffineTransform tr = AffineTransform.getTranslateInstance(-r.x, -r.y);
-      gi.setTransform(tr);
-
-      DLUtil.SetHints(gi);
-
-      final DLComponentList copy = dl.components.copy();
-      final Iterator<DLComponent> i = copy.iterator();
-      while (i.hasNext()) {
-        final DLComponent dlc = i.next();
-        if (r.intersects(dlc.getBounds()))
-          dlc.paint(gi);
-      }
-      g.drawImage(image, r.x, r.y, null);
-      image = null;
-    } else
+    if (isPainting())
+      repaintManager.invalidate(r);
+    else
       addRectangle(r);
   }
 
+  void compose(Graphics2D gi, Rectangle r) {
+    if (layer.enabled) {
+      layer.compose(gi, r);
+      return;
+    }
+    Color c = dl.getBackground(); // getPanel().getBackground();
+    gi.setColor(c);
+    gi.fillRect(r.x, r.y, r.width, r.height);
+
+    final Iterator<DLComponent> i = dl.query(r).iterator();
+    while (i.hasNext()) {
+      final DLComponent dlc = i.next();
+      draw(dlc, gi);
+    }
+  }
+
+  static void draw(DLComponent dlc, Graphics2D g) {
+    long start = System.nanoTime();
+    dlc.paint(g);
+    dlc.metrics.paint.record(System.nanoTime() - start);
+  }
+
 }
@@ -67,6 +67,7 @@ class Shadow {
   }
 
   BufferedImage makeShadow() {
+    final long start = System.nanoTime();
     final Rectangle r = curve.getBounds(); // curve.path.getBounds();
     final int iw = (int) Math.ceil(r.width + 2 * radius);
     final int ih = (int) Math.ceil(r.height + 2 * radius);
@@ -93,6 +94,7 @@ class Shadow {
     f.setShadowOnly(true);
     f.setAddMargins(false);
     final BufferedImage bi = f.filter(image, null);
+    curve.metrics.shadow.record(System.nanoTime() - start);
     return bi;
   }
 